@@ -0,0 +1,36 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.async")
+public class AnimeAsyncProperties {
+    /**
+     * Registers the /animes/async endpoints, served from a dedicated executor instead of the Tomcat threads.
+     */
+    private boolean enabled = false;
+    private int corePoolSize = 16;
+    private int maxPoolSize = 64;
+    /**
+     * Requests waiting for an executor thread, once it is full the request is answered with 503.
+     */
+    private int queueCapacity = 1000;
+    /**
+     * How long an /animes/async read may take before it is answered with 503, keep it under
+     * spring.mvc.async.request-timeout.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    /**
+     * Concurrent /animes/async reads allowed to reach the database, keep it at or below the connection pool size.
+     */
+    private int databasePermits = 10;
+    /**
+     * How long a call waits for a database permit before it is rejected with 503.
+     */
+    private Duration databaseAcquireTimeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,15 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.batch")
+public class AnimeBatchProperties {
+    /**
+     * How many animes are sent to the database in a single batched statement and transaction.
+     */
+    private int chunkSize = 500;
+}
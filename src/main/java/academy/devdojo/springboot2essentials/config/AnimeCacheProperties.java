@@ -0,0 +1,15 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.cache")
+public class AnimeCacheProperties {
+    /**
+     * Also cache ids that were not found, so repeated lookups of missing animes do not reach the database.
+     */
+    private boolean cacheMissingIds = false;
+}
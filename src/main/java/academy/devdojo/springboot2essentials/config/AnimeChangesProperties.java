@@ -0,0 +1,40 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.changes")
+public class AnimeChangesProperties {
+    /**
+     * Events kept for clients resuming with Last-Event-ID. A subscriber further behind than this is disconnected
+     * and, when it comes back, told to fetch the animes again.
+     */
+    private int bufferSize = 1024;
+    /**
+     * Open /animes/changes connections, new ones are answered with 503 past this.
+     */
+    private int maxSubscribers = 10_000;
+    /**
+     * Threads writing events to the subscribers. Each stuck one is replaced once, so about twice this many clients
+     * that never read stall delivery for everyone until the server write timeout.
+     */
+    private int senderThreads = 8;
+    /**
+     * A subscriber whose socket has not taken an event for this long is disconnected, and the sender stuck writing
+     * to it replaced until the server times the write out.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(5);
+    /**
+     * Comments are sent this often on idle connections so proxies keep them open and dead clients are noticed.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    /**
+     * Connections are closed after this long, EventSource clients reconnect with their Last-Event-ID.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
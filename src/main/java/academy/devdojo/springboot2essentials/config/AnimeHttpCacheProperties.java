@@ -0,0 +1,25 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.http-cache")
+public class AnimeHttpCacheProperties {
+    /**
+     * How long clients may reuse an anime response without revalidating, zero makes them send If-None-Match every time.
+     */
+    private Duration maxAge = Duration.ZERO;
+
+    public CacheControl cacheControl() {
+        if (maxAge.isZero()) {
+            return CacheControl.noCache().cachePrivate();
+        }
+        return CacheControl.maxAge(maxAge).cachePrivate().mustRevalidate();
+    }
+}
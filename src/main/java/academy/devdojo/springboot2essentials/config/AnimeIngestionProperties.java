@@ -0,0 +1,38 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.ingestion")
+public class AnimeIngestionProperties {
+    /**
+     * POST /animes queues the anime for the ingestion writer instead of inserting it in the request thread.
+     */
+    private boolean enabled = false;
+    /**
+     * Animes waiting to be inserted, new ones are answered with 503 past this.
+     */
+    private int queueCapacity = 10_000;
+    /**
+     * Most animes inserted in one transaction by the writer.
+     */
+    private int maxBatchSize = 500;
+    /**
+     * How long a request without Prefer: respond-async waits for its anime to be committed before it is answered
+     * with 202 and a tracking id instead.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(5);
+    /**
+     * How long the outcome of a queued anime can be read from /animes/ingestion/{trackingId}.
+     */
+    private Duration resultRetention = Duration.ofMinutes(10);
+    /**
+     * Outcomes kept for /animes/ingestion/{trackingId}, the oldest are dropped past this.
+     */
+    private long maximumResults = 100_000;
+}
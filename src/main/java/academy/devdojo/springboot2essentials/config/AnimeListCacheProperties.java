@@ -0,0 +1,24 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.list-cache")
+public class AnimeListCacheProperties {
+    /**
+     * Keep the serialized list responses, and their gzipped copy once a client asked for it, until the next write.
+     */
+    private boolean enabled = true;
+    /**
+     * Upper bound for the bytes held by the cache, plain and gzipped bodies both count.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(32);
+    /**
+     * Larger list responses are not cached but written straight to the client, and compressed by the server.
+     */
+    private DataSize maximumEntrySize = DataSize.ofMegabytes(4);
+}
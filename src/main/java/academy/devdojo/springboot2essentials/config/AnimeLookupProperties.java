@@ -0,0 +1,19 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.lookup")
+public class AnimeLookupProperties {
+    /**
+     * Ids sent to the database in one IN list, larger lookups take one query per chunk.
+     */
+    private int chunkSize = 500;
+    /**
+     * Distinct ids accepted in one lookup, more are answered with 400.
+     */
+    private int maxIds = 1_000;
+}
@@ -0,0 +1,26 @@
+package academy.devdojo.springboot2essentials.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * The cache interceptor runs outside the transaction one, which keeps the default lowest precedence, so an
+ * eviction only happens once the write has committed and a concurrent read cannot cache the old row again.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    public static final String ANIMES_BY_ID = "animes";
+    public static final String USERS_BY_USERNAME = "users";
+
+    @Bean
+    CacheManagerCustomizer<CaffeineCacheManager> usersCacheCustomizer(SecurityCacheProperties securityCacheProperties) {
+        return cacheManager -> cacheManager.registerCustomCache(USERS_BY_USERNAME,
+                Caffeine.from(securityCacheProperties.getUsersSpec()).build());
+    }
+}
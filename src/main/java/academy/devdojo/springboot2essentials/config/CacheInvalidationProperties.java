@@ -0,0 +1,40 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.cache-invalidation")
+public class CacheInvalidationProperties {
+    /**
+     * Record every anime write in the cache_invalidation table and evict what other instances wrote from the
+     * local caches. Turn it off only when a single instance runs against the database.
+     */
+    private boolean enabled = true;
+    /**
+     * How often the table is read for changes made by other instances.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+    /**
+     * Changes read per query, a poll keeps reading until it gets fewer.
+     */
+    private int batchSize = 500;
+    /**
+     * How long a missing id is waited for. Ids are taken at insert but become visible at commit, so a slow
+     * transaction shows up after the ids that follow it; longer than the longest write transaction.
+     */
+    private Duration gapTimeout = Duration.ofSeconds(10);
+    /**
+     * When the table cannot be read for this long the local caches are dropped, so nothing served from them is
+     * ever older than this.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(30);
+    /**
+     * Changes older than this are deleted.
+     */
+    private Duration retention = Duration.ofHours(1);
+}
@@ -0,0 +1,89 @@
+package academy.devdojo.springboot2essentials.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Remembers successful password checks for a short time so repeated HTTP Basic calls skip bcrypt.
+ * Entries are keyed on an HMAC of the raw and encoded password using a key that never leaves this instance,
+ * so the cache holds nothing that can be brute forced offline and a password change is a cache miss.
+ * Failed checks are never cached.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final Cache<String, Boolean> verifiedCredentials;
+    private final Timer verificationTimer;
+    private final ThreadLocal<Mac> macs;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, SecurityCacheProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .maximumSize(properties.getCredentialsMaximumSize())
+                .expireAfterWrite(properties.getCredentialsTtl())
+                .recordStats()
+                .build();
+        this.verificationTimer = Timer.builder("security.password.verification")
+                .description("Time spent verifying passwords that were not found in the credentials cache")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedCredentials, "credentials");
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec secretKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(secretKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        String key = hmac(rawPassword, encodedPassword);
+        if (verifiedCredentials.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean matches = verificationTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        if (matches) {
+            verifiedCredentials.put(key, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private String hmac(CharSequence rawPassword, String encodedPassword) {
+        Mac mac = macs.get();
+        mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(encodedPassword.getBytes(StandardCharsets.UTF_8)));
+    }
+}
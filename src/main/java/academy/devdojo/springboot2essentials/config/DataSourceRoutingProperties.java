@@ -0,0 +1,30 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.datasource.routing")
+public class DataSourceRoutingProperties {
+    /**
+     * Send read-only transactions to the replica pool configured under anime.datasource.replica.
+     */
+    private boolean enabled = false;
+    /**
+     * Replicas further behind than this are skipped and their reads go to the primary.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+    /**
+     * How often the replica lag is checked.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+    /**
+     * Query returning the replica lag in seconds, read from Seconds_Behind_Source (or Seconds_Behind_Master)
+     * when the result has that column and from the first column otherwise.
+     */
+    private String lagQuery = "SHOW REPLICA STATUS";
+}
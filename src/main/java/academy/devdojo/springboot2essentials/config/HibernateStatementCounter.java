@@ -0,0 +1,28 @@
+package academy.devdojo.springboot2essentials.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, registered as Hibernate's statement
+ * inspector by {@link MetricsConfig}. Statements run by {@code JdbcTemplate} do not go through Hibernate and are
+ * not counted.
+ */
+@Component
+public class HibernateStatementCounter implements StatementInspector {
+    private final ThreadLocal<long[]> statements = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        statements.get()[0]++;
+        return sql;
+    }
+
+    public void reset() {
+        statements.get()[0] = 0;
+    }
+
+    public long count() {
+        return statements.get()[0];
+    }
+}
@@ -0,0 +1,43 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many statements Hibernate ran for each request, tagged like {@code http.server.requests}, so an
+ * endpoint whose statement count grows with the data it returns shows up as an N+1. Only statements run on the
+ * request thread count, the {@code animes/async} endpoints run theirs on the async executor.
+ */
+@Component
+@RequiredArgsConstructor
+public class HibernateStatementsInterceptor implements HandlerInterceptor {
+    public static final String STATEMENTS_SUMMARY = "anime.hibernate.statements";
+
+    private final HibernateStatementCounter hibernateStatementCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        hibernateStatementCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(STATEMENTS_SUMMARY)
+                .description("SQL statements run by Hibernate per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .register(meterRegistry)
+                .record(hibernateStatementCounter.count());
+    }
+}
@@ -0,0 +1,29 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Histogram buckets and SLOs of these meters are set under {@code management.metrics.distribution}, repository
+ * calls are timed by Spring Boot as {@code spring.data.repository.invocations} and connection acquire time by
+ * Hikari as {@code hikaricp.connections.acquire}.
+ */
+@Configuration
+public class MetricsConfig {
+    /**
+     * Makes {@link io.micrometer.core.annotation.Timed} work on beans other than controllers.
+     */
+    @Bean
+    TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer statementCounterCustomizer(HibernateStatementCounter hibernateStatementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, hibernateStatementCounter);
+    }
+}
@@ -0,0 +1,102 @@
+package academy.devdojo.springboot2essentials.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per principal and budget. Buckets live in a Caffeine cache, bounded by
+ * {@link RateLimitProperties#getMaximumBuckets()} and dropped once idle, and are updated with a single
+ * compare-and-set so concurrent requests of the same user never block each other.
+ */
+public class PrincipalRateLimiter {
+    public static final String RATE_LIMIT_COUNTER = "anime.rate.limit";
+
+    public enum Budget {USER, ADMIN}
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<Budget, RateLimitProperties.Budget> budgets = new EnumMap<>(Budget.class);
+    private final Map<Budget, Counter> allowed = new EnumMap<>(Budget.class);
+    private final Map<Budget, Counter> rejected = new EnumMap<>(Budget.class);
+    private final LongSupplier nanoTime;
+
+    public PrincipalRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    PrincipalRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumBuckets())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+        budgets.put(Budget.USER, properties.getUser());
+        budgets.put(Budget.ADMIN, properties.getAdmin());
+        for (Budget budget : Budget.values()) {
+            allowed.put(budget, counter(meterRegistry, budget, "allowed"));
+            rejected.put(budget, counter(meterRegistry, budget, "rejected"));
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the principal.
+     *
+     * @return 0 when the request may go on, otherwise how many nanoseconds until the next token
+     */
+    public long tryAcquire(Budget budget, String principal) {
+        long now = nanoTime.getAsLong();
+        TokenBucket bucket = buckets.get(budget.name() + ':' + principal, key -> new TokenBucket(budgets.get(budget), now));
+        long waitNanos = bucket.tryAcquire(now);
+        (waitNanos == 0 ? allowed : rejected).get(budget).increment();
+        return waitNanos;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Budget budget, String outcome) {
+        return Counter.builder(RATE_LIMIT_COUNTER)
+                .description("Requests checked against the per user rate limit")
+                .tag("budget", budget.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Token bucket kept as the time at which it will be full again (GCRA): each request pushes that time one
+     * refill interval further, and a request that would push it more than the capacity ahead of now is refused.
+     */
+    static class TokenBucket {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong fullAt;
+
+        TokenBucket(RateLimitProperties.Budget budget, long now) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / budget.getRefillPerSecond());
+            this.burstNanos = intervalNanos * budget.getCapacity();
+            // starts full; nanoTime values are only compared through their difference, which may wrap
+            this.fullAt = new AtomicLong(now);
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current - now, 0) + intervalNanos;
+                if (next > burstNanos) {
+                    return next - burstNanos;
+                }
+                if (fullAt.compareAndSet(current, now + next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
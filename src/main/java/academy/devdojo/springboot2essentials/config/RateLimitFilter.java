@@ -0,0 +1,75 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.execption.ExceptionDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spends a token of the authenticated user on every /animes/** request, from the admin budget under
+ * /animes/admin/**. Requests without a token left get a 429 with Retry-After before reaching a controller.
+ * Unauthenticated requests are left to the access rules.
+ */
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final RequestMatcher ADMIN_ROUTES = new AntPathRequestMatcher("/animes/admin/**");
+    private static final RequestMatcher USER_ROUTES = new AntPathRequestMatcher("/animes/**");
+
+    private final PrincipalRateLimiter principalRateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        PrincipalRateLimiter.Budget budget = budget(request);
+        if (budget == null || authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = principalRateLimiter.tryAcquire(budget, authentication.getName());
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static PrincipalRateLimiter.Budget budget(HttpServletRequest request) {
+        if (ADMIN_ROUTES.matches(request)) {
+            return PrincipalRateLimiter.Budget.ADMIN;
+        }
+        return USER_ROUTES.matches(request) ? PrincipalRateLimiter.Budget.USER : null;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ExceptionDetails.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .title("Too Many Requests, slow down")
+                .details("Rate limit exceeded, retry in " + retryAfterSeconds + "s")
+                .developerMessage(RateLimitFilter.class.getName())
+                .build());
+    }
+}
@@ -0,0 +1,61 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.time.Duration;
+
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "anime.rate-limit")
+public class RateLimitProperties {
+    /**
+     * Limit how fast each authenticated user can call /animes/**, requests over the budget get a 429.
+     */
+    private boolean enabled = true;
+    /**
+     * Budget of each user on /animes/**.
+     */
+    @Valid
+    private Budget user = new Budget(100, 50);
+    /**
+     * Budget of each admin on /animes/admin/**, kept apart from the one they spend on the other routes.
+     */
+    @Valid
+    private Budget admin = new Budget(20, 5);
+    /**
+     * Upper bound for the buckets kept in memory, the least recently used are dropped first.
+     */
+    private long maximumBuckets = 100_000;
+    /**
+     * Buckets not used for this long are dropped, by then they would have been refilled anyway.
+     */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    @Data
+    public static class Budget {
+        /**
+         * Requests a user can make in a burst.
+         */
+        @Positive
+        private long capacity;
+        /**
+         * Requests added back to the burst every second.
+         */
+        @Positive
+        private double refillPerSecond;
+
+        public Budget() {
+        }
+
+        public Budget(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.service.DevDojoUserDetailsService;
+import academy.devdojo.springboot2essentials.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Same rules as {@link SecurityConfig} for the WebFlux stack selected by the "reactive" profile.
+ */
+@EnableWebFluxSecurity
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+    private static final String BEARER_PREFIX = "Bearer ";
+    private final DevDojoUserDetailsService devDojoUserDetailsService;
+    private final SecurityCacheProperties securityCacheProperties;
+    private final MeterRegistry meterRegistry;
+    private final TokenService tokenService;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http.csrf().disable()
+                .authorizeExchange()
+                .pathMatchers("/animes/admin/**").hasRole("ADMIN")
+                .pathMatchers("/animes/**").hasRole("USER")
+                .pathMatchers("/actuator/slowqueries/**", "/actuator/slowqueries").hasRole("ADMIN")
+                .pathMatchers("/actuator/**").permitAll()
+                .pathMatchers("/auth/token").permitAll()
+                .anyExchange().authenticated()
+                .and()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(bearerTokenAuthenticationFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
+                .httpBasic()
+                .and()
+                .build();
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager() {
+        PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        MapReactiveUserDetailsService inMemoryUsers = new MapReactiveUserDetailsService(
+                User.withUsername("wesley2").password(passwordEncoder.encode("academy")).roles("USER", "ADMIN").build(),
+                User.withUsername("devdojo2").password(passwordEncoder.encode("academy")).roles("USER").build());
+        // database users first, same order as the servlet stack; the JPA lookup blocks so it is moved off the event loop
+        ReactiveUserDetailsService userDetailsService = username -> Mono
+                .fromCallable(() -> devDojoUserDetailsService.loadUserByUsername(username))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(UsernameNotFoundException.class, e -> inMemoryUsers.findByUsername(username));
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(new CachingPasswordEncoder(passwordEncoder, securityCacheProperties, meterRegistry));
+        return authenticationManager;
+    }
+
+    private AuthenticationWebFilter bearerTokenAuthenticationFilter() {
+        AuthenticationWebFilter filter = new AuthenticationWebFilter((ReactiveAuthenticationManager) Mono::just);
+        filter.setServerAuthenticationConverter(exchange -> {
+            String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+                return Mono.empty();
+            }
+            return Mono.justOrEmpty(tokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim()));
+        });
+        return filter;
+    }
+}
@@ -0,0 +1,124 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Read-only transactions get a replica connection while the {@link ReplicaLagMonitor} considers the replica
+ * usable, everything else gets a primary one. Only works behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager asks for the
+ * connection before it marks the transaction read-only.
+ * <p>
+ * Reads whose results are kept in a shared cache run {@link #onPrimary(Supplier)}: the caches are only evicted by
+ * writes, and a replica read right after one would put the old row back for the whole TTL, so a lagging replica
+ * would be stale for longer than max-lag.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+    public static final String ROUTING_COUNTER = "anime.datasource.routing";
+
+    public enum Route {PRIMARY, REPLICA}
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder pinned = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * A binder rather than a registry in the constructor: the registry binds the data source pool metrics, so it
+     * cannot be a dependency of a data source.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, Route.PRIMARY, "write", writes);
+        counter(registry, Route.REPLICA, "read", reads);
+        counter(registry, Route.PRIMARY, "fallback", fallbacks);
+        counter(registry, Route.PRIMARY, "pinned", pinned);
+    }
+
+    /**
+     * Connections taken by the supplier on this thread come from the primary, read-only transactions included.
+     * The connection is taken at the first statement, so the supplier has to run the transaction's first query.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (Boolean.TRUE.equals(PINNED_TO_PRIMARY.get())) {
+            return reads.get();
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    private static boolean readsFromReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return readsFromReplica() && replicaLagMonitor.isUsable()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return primary.getConnection();
+        }
+        if (!readsFromReplica()) {
+            pinned.increment();
+            return primary.getConnection();
+        }
+        if (replicaLagMonitor.isUsable()) {
+            try {
+                Connection connection = replica.getConnection();
+                reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replicaLagMonitor.markUnavailable(e.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTargetDataSource().getConnection(username, password);
+    }
+
+    private static void counter(MeterRegistry registry, Route route, String reason, LongAdder count) {
+        FunctionCounter.builder(ROUTING_COUNTER, count, LongAdder::sum)
+                .description("Connections handed out by the read/write routing data source")
+                .tag("target", route.name().toLowerCase(Locale.ROOT))
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,116 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replica lag on a background thread so routing a read never waits on it. Until the first check
+ * succeeds, and whenever a check fails, the replica counts as unusable and reads go to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder, AutoCloseable {
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final DataSource replica;
+    private final DataSourceRoutingProperties properties;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean available;
+
+    public ReplicaLagMonitor(DataSource replica, DataSourceRoutingProperties properties) {
+        this.replica = replica;
+        this.properties = properties;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("anime.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replication lag of the read replica, NaN while it cannot be read")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("anime.datasource.replica.usable", this, monitor -> monitor.isUsable() ? 1 : 0)
+                .description("1 while read-only transactions are sent to the replica, 0 while they fall back to the primary")
+                .register(registry);
+    }
+
+    public void start() {
+        long interval = properties.getLagCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::check, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isUsable() {
+        return available && lagSeconds <= maxLagSeconds();
+    }
+
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+            // a server that is not replicating from anything is never behind
+            Double lag = resultSet.next() ? readLag(resultSet) : Double.valueOf(0);
+            if (lag == null) {
+                markUnavailable("replication is not running");
+                return;
+            }
+            if (!isUsable() && lag <= maxLagSeconds()) {
+                log.info("Replica is {}s behind, routing read-only transactions to it", lag);
+            } else if (isUsable() && lag > maxLagSeconds()) {
+                log.warn("Replica is {}s behind, routing read-only transactions to the primary", lag);
+            }
+            lagSeconds = lag;
+            available = true;
+        } catch (SQLException | RuntimeException e) {
+            markUnavailable(e.getMessage());
+        }
+    }
+
+    /**
+     * Called when a connection to the replica could not be obtained, the next successful check takes it back.
+     */
+    public void markUnavailable(String reason) {
+        if (available) {
+            log.warn("Replica unavailable, routing read-only transactions to the primary: {}", reason);
+        }
+        available = false;
+        lagSeconds = Double.NaN;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private double maxLagSeconds() {
+        return properties.getMaxLag().toMillis() / 1000.0;
+    }
+
+    private static Double readLag(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int column = 1;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            for (String lagColumn : LAG_COLUMNS) {
+                if (lagColumn.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    column = i;
+                }
+            }
+        }
+        double lag = resultSet.getDouble(column);
+        return resultSet.wasNull() ? null : lag;
+    }
+}
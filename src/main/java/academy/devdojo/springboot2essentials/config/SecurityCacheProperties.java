@@ -0,0 +1,22 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "devdojo.security.cache")
+public class SecurityCacheProperties {
+    /**
+     * Caffeine spec of the cache holding users loaded by DevDojoUserDetailsService.
+     */
+    private String usersSpec = "maximumSize=10000,expireAfterWrite=5m,recordStats";
+    /**
+     * How long a successful password check is remembered, repeated requests inside this window skip bcrypt.
+     */
+    private Duration credentialsTtl = Duration.ofMinutes(5);
+    private long credentialsMaximumSize = 10_000;
+}
@@ -1,44 +1,81 @@
 package academy.devdojo.springboot2essentials.config;
 
 import academy.devdojo.springboot2essentials.service.DevDojoUserDetailsService;
+import academy.devdojo.springboot2essentials.service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
 @EnableWebSecurity
+@Profile("!reactive")
 @Slf4j
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 @RequiredArgsConstructor
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
     private final DevDojoUserDetailsService devDojoUserDetailsService;
+    private final SecurityCacheProperties securityCacheProperties;
+    private final MeterRegistry meterRegistry;
+    private final TokenService tokenService;
+    private final RateLimitProperties rateLimitProperties;
+    private final ObjectMapper objectMapper;
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.csrf().disable()
                 //.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
                 //.and()
-                .authorizeRequests()
+                .authorizeHttpRequests()
                 .antMatchers("/animes/admin/**").hasRole("ADMIN")
                 .antMatchers("/animes/**").hasRole("USER")
+                .antMatchers("/actuator/slowqueries/**", "/actuator/slowqueries").hasRole("ADMIN")
                 .antMatchers("/actuator/**").permitAll()
+                .antMatchers("/auth/token").permitAll()
                 .anyRequest().authenticated()
                 .and()
-                .formLogin()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, meterRegistry), BasicAuthenticationFilter.class)
                 .httpBasic();
+        if (rateLimitProperties.isEnabled()) {
+            http.addFilterAfter(new RateLimitFilter(new PrincipalRateLimiter(rateLimitProperties, meterRegistry), objectMapper),
+                    BasicAuthenticationFilter.class);
+        }
+    }
+
+    @Override
+    protected AuthenticationManager authenticationManager() throws Exception {
+        return new TimedAuthenticationManager(super.authenticationManager(), meterRegistry);
+    }
+
+    @Bean
+    @Override
+    public AuthenticationManager authenticationManagerBean() throws Exception {
+        return super.authenticationManagerBean();
     }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
         log.info("Password encoded {}", passwordEncoder.encode("academy"));
+        PasswordEncoder cachingPasswordEncoder = new CachingPasswordEncoder(passwordEncoder, securityCacheProperties, meterRegistry);
+        // database users first: a miss in a provider costs a full bcrypt check to mitigate timing attacks
+        auth.userDetailsService(devDojoUserDetailsService)
+                .passwordEncoder(cachingPasswordEncoder);
         auth.inMemoryAuthentication()
+                .passwordEncoder(cachingPasswordEncoder)
                 .withUser("wesley2")
                 .password(passwordEncoder.encode("academy"))
                 .roles("USER", "ADMIN")
@@ -46,7 +83,5 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .withUser("devdojo2")
                 .password(passwordEncoder.encode("academy"))
                 .roles("USER");
-        auth.userDetailsService(devDojoUserDetailsService)
-                .passwordEncoder(passwordEncoder);
     }
 }
@@ -0,0 +1,39 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.service.SlowQueryLog;
+import academy.devdojo.springboot2essentials.wrapper.SlowQueryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/slowqueries}, the slowest normalized statements ordered by total time, or by {@code max} or
+ * {@code count} when given as {@code orderBy}. Bind values are shown, so access is limited to admins.
+ */
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueriesEndpoint {
+    private final SlowQueryLog slowQueryLog;
+    private final SlowQueryProperties slowQueryProperties;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries(@Nullable Integer top, @Nullable String orderBy) {
+        List<SlowQueryResponse> statements = slowQueryLog.top(top == null ? slowQueryProperties.getTop() : top, orderBy);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("thresholdMillis", slowQueryProperties.getThreshold().toMillis());
+        response.put("untracked", slowQueryLog.untracked());
+        response.put("statements", statements);
+        return response;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        slowQueryLog.reset();
+    }
+}
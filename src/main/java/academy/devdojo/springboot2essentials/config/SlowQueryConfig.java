@@ -0,0 +1,42 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.service.SlowQueryLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "anime.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+    /**
+     * Static, and with lazy lookups, so the post processor is registered before the data source is created
+     * without pulling the properties and the log along with it.
+     */
+    @Bean
+    static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog,
+                                                              ObjectProvider<SlowQueryProperties> slowQueryProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // proxies and routers hand out connections of data sources that are wrapped themselves
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                        && !(bean instanceof AbstractRoutingDataSource)) {
+                    return new SlowQueryDataSource(dataSource, slowQueryLog.getObject(),
+                            slowQueryProperties.getObject().getThreshold().toNanos());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    SlowQueriesEndpoint slowQueriesEndpoint(SlowQueryLog slowQueryLog, SlowQueryProperties slowQueryProperties) {
+        return new SlowQueriesEndpoint(slowQueryLog, slowQueryProperties);
+    }
+}
@@ -0,0 +1,207 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.service.SlowQueryLog;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Times every statement executed through the wrapped data source and hands the ones over the slow query threshold
+ * to {@link SlowQueryLog}. Fast statements only pay for two {@link System#nanoTime()} calls and the bind capture;
+ * the result set of a slow query is wrapped to count its rows and the query is recorded once it is closed.
+ * The time recorded is the execute call, rows fetched later through a cursor are counted but not timed.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdNanos;
+
+    public SlowQueryDataSource(DataSource targetDataSource, SlowQueryLog slowQueryLog, long thresholdNanos) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = delegate(target, method, args);
+            if (result instanceof CallableStatement) {
+                return result;
+            }
+            if (result instanceof PreparedStatement preparedStatement && method.getName().equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, preparedStatement, new StatementHandler(preparedStatement, (String) args[0]));
+            }
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null));
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (args[0] instanceof Class<?> iface && iface.isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private Object[] binds = new Object[8];
+        private int bindCount;
+        private PendingQuery pending;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+                return delegate(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                Arrays.fill(binds, null);
+                bindCount = 0;
+                return delegate(target, method, args);
+            }
+            if (name.equals("close")) {
+                finishPending();
+                return delegate(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return delegate(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String statementSql ? statementSql : preparedSql;
+            if (sql == null) {
+                // executeBatch of a plain Statement, the batched SQL is not known here
+                return delegate(target, method, args);
+            }
+            long start = System.nanoTime();
+            Object result = delegate(target, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (elapsed < thresholdNanos) {
+                return result;
+            }
+            finishPending();
+            List<Object> capturedBinds = new ArrayList<>(Arrays.asList(binds).subList(0, bindCount));
+            if (result instanceof ResultSet resultSet) {
+                pending = new PendingQuery(sql, capturedBinds, elapsed);
+                return resultSet(resultSet, pending);
+            }
+            slowQueryLog.record(obtainTargetDataSource(), sql, capturedBinds, elapsed, rows(result));
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.finish();
+                pending = null;
+            }
+        }
+
+        private long rows(Object result) throws SQLException {
+            if (result instanceof Integer count) {
+                return count;
+            }
+            if (result instanceof Long count) {
+                return count;
+            }
+            if (result instanceof int[] counts) {
+                return Arrays.stream(counts).filter(count -> count > 0).asLongStream().sum();
+            }
+            if (result instanceof long[] counts) {
+                return Arrays.stream(counts).filter(count -> count > 0).sum();
+            }
+            return result instanceof Boolean hasResultSet && !hasResultSet ? target.getUpdateCount() : -1;
+        }
+    }
+
+    private ResultSet resultSet(ResultSet target, PendingQuery pending) {
+        return proxy(ResultSet.class, target, (proxy, method, args) -> {
+            Object result = delegate(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                pending.rows++;
+            } else if (method.getName().equals("close")) {
+                pending.finish();
+            }
+            return result;
+        });
+    }
+
+    private class PendingQuery {
+        private final String sql;
+        private final List<Object> binds;
+        private final long elapsedNanos;
+        private long rows;
+        private boolean finished;
+
+        PendingQuery(String sql, List<Object> binds, long elapsedNanos) {
+            this.sql = sql;
+            this.binds = binds;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                slowQueryLog.record(obtainTargetDataSource(), sql, binds, elapsedNanos, rows);
+            }
+        }
+    }
+}
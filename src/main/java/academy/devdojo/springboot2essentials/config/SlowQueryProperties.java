@@ -0,0 +1,37 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.slow-query")
+public class SlowQueryProperties {
+    /**
+     * Wrap the application data sources so slow statements are recorded.
+     */
+    private boolean enabled = true;
+    /**
+     * Statements whose execution takes at least this long are logged and recorded.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+    /**
+     * Run EXPLAIN once for every slow SELECT, on a background thread and a connection of its own.
+     */
+    private boolean explain = true;
+    /**
+     * How many statements the slowqueries endpoint returns by default.
+     */
+    private int top = 20;
+    /**
+     * Distinct normalized statements kept, slow statements beyond that are logged but not recorded.
+     */
+    private int maxStatements = 500;
+    /**
+     * Bind values longer than this are cut in the log and in the endpoint.
+     */
+    private int maxBindLength = 100;
+}
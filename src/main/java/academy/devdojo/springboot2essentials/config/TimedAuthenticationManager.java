@@ -0,0 +1,47 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Records how long username and password authentication takes, database lookup and password check included,
+ * in the same timer {@link TokenAuthenticationFilter} records bearer token checks in.
+ */
+@RequiredArgsConstructor
+public class TimedAuthenticationManager implements AuthenticationManager {
+    public static final String AUTHENTICATION_TIMER = "security.authentication";
+
+    private final AuthenticationManager delegate;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean authenticated = false;
+        try {
+            Authentication result = delegate.authenticate(authentication);
+            authenticated = result != null && result.isAuthenticated();
+            return result;
+        } finally {
+            sample.stop(timer(meterRegistry, type(authentication), authenticated));
+        }
+    }
+
+    static Timer timer(MeterRegistry meterRegistry, String type, boolean authenticated) {
+        return Timer.builder(AUTHENTICATION_TIMER)
+                .description("Time spent authenticating a request")
+                .tag("type", type)
+                .tag("outcome", authenticated ? "success" : "failure")
+                .register(meterRegistry);
+    }
+
+    private static String type(Authentication authentication) {
+        return authentication instanceof UsernamePasswordAuthenticationToken ? "password"
+                : authentication.getClass().getSimpleName();
+    }
+}
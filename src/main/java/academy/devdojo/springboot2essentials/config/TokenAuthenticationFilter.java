@@ -0,0 +1,42 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying an {@code Authorization: Bearer} token issued by {@link TokenService}.
+ * Invalid tokens are ignored here, the request then goes on unauthenticated and is rejected by the access rules.
+ */
+@RequiredArgsConstructor
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Optional<Authentication> authentication = tokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+            sample.stop(TimedAuthenticationManager.timer(meterRegistry, "bearer", authentication.isPresent()));
+            authentication.ifPresent(value -> SecurityContextHolder.getContext().setAuthentication(value));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,19 @@
+package academy.devdojo.springboot2essentials.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "devdojo.security.token")
+public class TokenProperties {
+    /**
+     * Base64 HMAC-SHA256 key shared by every instance, when empty a random key is generated and tokens only work on this instance.
+     */
+    private String secret;
+    private Duration ttl = Duration.ofHours(1);
+    private String issuer = "springboot2-essentials";
+}
@@ -0,0 +1,19 @@
+package academy.devdojo.springboot2essentials.configurer;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+@Configuration
+@Profile("reactive")
+public class DevDojoWebFluxConfigurer implements WebFluxConfigurer {
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        ReactivePageableHandlerMethodArgumentResolver pageHandler = new ReactivePageableHandlerMethodArgumentResolver();
+        pageHandler.setFallbackPageable(PageRequest.of(1, 5));
+        configurer.addCustomResolver(pageHandler);
+    }
+}
@@ -0,0 +1,54 @@
+package academy.devdojo.springboot2essentials.controller;
+
+import academy.devdojo.springboot2essentials.requests.NameSearchMode;
+import academy.devdojo.springboot2essentials.service.AnimeAsyncService;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("animes/async")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "anime.async", name = "enabled", havingValue = "true")
+public class AnimeAsyncController {
+    private final AnimeAsyncService animeAsyncService;
+
+    @GetMapping
+    @Operation(summary = "List all the animes paginated without holding a servlet thread",
+            description = "Same as /animes, answers 503 when the executor or the database limiter is saturated",
+            tags = {"anime"})
+    public CompletableFuture<ResponseEntity<Page<AnimeResponse>>> list(@ParameterObject Pageable pageable) {
+        return animeAsyncService.listAll(pageable).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search animes by name without holding a servlet thread", description = "Same as /animes/search",
+            tags = {"anime"})
+    public CompletableFuture<ResponseEntity<Page<AnimeResponse>>> search(@RequestParam("name") String name,
+                                                                         @RequestParam(value = "mode", defaultValue = "PREFIX") NameSearchMode mode,
+                                                                         @RequestParam(value = "ignoreCase", defaultValue = "false") boolean ignoreCase,
+                                                                         @ParameterObject Pageable pageable) {
+        return animeAsyncService.search(name, mode, ignoreCase, pageable).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Find an anime by id without holding a servlet thread", description = "Same as /animes/{id}",
+            tags = {"anime"})
+    public CompletableFuture<ResponseEntity<AnimeResponse>> findById(@PathVariable long id) {
+        return animeAsyncService.findByIdOrThrowBadRequestException(id).thenApply(ResponseEntity::ok);
+    }
+}
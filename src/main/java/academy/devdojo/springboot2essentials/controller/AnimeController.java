@@ -1,73 +1,252 @@
 package academy.devdojo.springboot2essentials.controller;
 
+import academy.devdojo.springboot2essentials.config.AnimeHttpCacheProperties;
+import academy.devdojo.springboot2essentials.config.AnimeIngestionProperties;
 import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.requests.AnimePatchRequestBody;
 import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.requests.NameSearchMode;
+import academy.devdojo.springboot2essentials.service.AnimeChangeFeed;
+import academy.devdojo.springboot2essentials.service.AnimeChangeTracker;
+import academy.devdojo.springboot2essentials.service.AnimeIngestionQueue;
+import academy.devdojo.springboot2essentials.service.AnimeListResponseCache;
+import academy.devdojo.springboot2essentials.service.AnimeListResponseCache.EncodedResponse;
 import academy.devdojo.springboot2essentials.service.AnimeService;
-import academy.devdojo.springboot2essentials.util.DateUtil;
+import academy.devdojo.springboot2essentials.wrapper.AnimeBatchItemResult;
+import academy.devdojo.springboot2essentials.wrapper.AnimeIngestionStatus;
+import academy.devdojo.springboot2essentials.wrapper.AnimeLookupResponse;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import academy.devdojo.springboot2essentials.wrapper.KeysetResponse;
+import academy.devdojo.springboot2essentials.wrapper.PageResponse;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("animes")
 @Slf4j
 @RequiredArgsConstructor
 public class AnimeController {
-    private final DateUtil dateUtil;
+    private static final int MAX_KEYSET_SIZE = 500;
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    private static final String PREFER = "Prefer";
     private final AnimeService animeService;
+    private final ObjectMapper objectMapper;
+    private final AnimeChangeTracker animeChangeTracker;
+    private final AnimeHttpCacheProperties animeHttpCacheProperties;
+    private final AnimeListResponseCache animeListResponseCache;
+    private final AnimeChangeFeed animeChangeFeed;
+    private final AnimeIngestionQueue animeIngestionQueue;
+    private final AnimeIngestionProperties animeIngestionProperties;
 
     @GetMapping
     @Operation(summary = "List all the animes paginated", description = "The deafult size is 20, use the parameter size to change the default value",
     tags = {"anime"})
-    public ResponseEntity<Page<Anime>> list(@ParameterObject Pageable pageable) {
-        log.info(dateUtil.fomartLocalDateTimeToDatabaseStyle(LocalDateTime.now()));
-        return ResponseEntity.ok().body(animeService.listAll(pageable));
+    @ApiResponse(responseCode = "200", description = "Successful Operation",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PageResponse.class)))
+    public ResponseEntity<Object> list(@ParameterObject Pageable pageable,
+                                       @Parameter(description = "Leave the pageable and sort objects out of the page")
+                                       @RequestParam(value = "compact", defaultValue = "false") boolean compact,
+                                       WebRequest webRequest) {
+        log.debug("Listing animes {} compact={}", pageable, compact);
+        String key = "page:" + pageKey(pageable) + ":compact=" + compact;
+        return encodedListGet(webRequest, key, () -> {
+            Page<AnimeResponse> page = animeService.listAll(pageable);
+            return compact ? PageResponse.of(page) : page;
+        });
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Find many animes by id at once", description = "Animes come in the order of the ids, the ids not found " +
+            "are listed in 'missing'; use POST /animes/lookup when the ids do not fit in the url", tags = {"anime"})
+    public ResponseEntity<AnimeLookupResponse> findAllById(@RequestParam("ids") List<Long> ids) {
+        return ResponseEntity.ok().body(animeService.findAllById(ids));
+    }
+
+    @PostMapping("/lookup")
+    @Operation(summary = "Find many animes by id at once", description = "Same as GET /animes?ids= with the ids in the body",
+            tags = {"anime"})
+    public ResponseEntity<AnimeLookupResponse> lookup(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok().body(animeService.findAllById(ids));
+    }
+
+    @GetMapping("/slice")
+    @Operation(summary = "List the animes paginated without counting the total", description = "Same as /animes but skips the count query",
+            tags = {"anime"})
+    public ResponseEntity<Slice<AnimeResponse>> listSlice(@ParameterObject Pageable pageable) {
+        return ResponseEntity.ok().body(animeService.listAllWithoutCount(pageable));
+    }
+
+    @GetMapping("/keyset")
+    @Operation(summary = "List the animes ordered by id using a cursor",
+            description = "Pass the 'next' value of the previous response as 'after', every page costs the same as the first one",
+            tags = {"anime"})
+    public ResponseEntity<KeysetResponse<AnimeResponse>> listKeyset(@RequestParam(value = "after", required = false) String after,
+                                                                    @RequestParam(value = "size", defaultValue = "20") int size) {
+        Long lastId = KeysetResponse.decodeCursor(after);
+        int boundedSize = Math.max(1, Math.min(size, MAX_KEYSET_SIZE));
+        return ResponseEntity.ok().body(KeysetResponse.of(animeService.listAllAfter(lastId, boundedSize), AnimeResponse::getId));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<Anime>> listAll() {
-        log.info(dateUtil.fomartLocalDateTimeToDatabaseStyle(LocalDateTime.now()));
-        return ResponseEntity.ok().body(animeService.listAllNonPageable());
+    @ApiResponse(responseCode = "200", description = "Successful Operation",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = AnimeResponse.class))))
+    public ResponseEntity<Object> listAll(WebRequest webRequest) {
+        log.debug("Listing all animes");
+        return encodedListGet(webRequest, "all", animeService::listAllNonPageable);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all the animes as newline delimited json",
+            description = "Rows are written as they are read from the database, use it instead of /animes/all for big catalogs; " +
+                    "the response is cut after spring.mvc.async.request-timeout",
+            tags = {"anime"})
+    public ResponseEntity<StreamingResponseBody> stream() {
+        StreamingResponseBody body = outputStream -> animeService.streamAll(anime -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(anime));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow the animes created, updated and deleted as server-sent events",
+            description = "Send the id of the last event received in Last-Event-ID to resume, a 'reset' event means the changes " +
+                    "since then are gone and the animes have to be fetched again", tags = {"anime"})
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return animeChangeFeed.subscribe(lastEventId);
     }
 
     @GetMapping("/find")
-    public ResponseEntity<List<Anime>> findByName(@RequestParam("name") String name) {
+    public ResponseEntity<List<AnimeResponse>> findByName(@RequestParam("name") String name) {
         return ResponseEntity.ok().body(animeService.findByName(name));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search animes by name paginated", description = "Mode can be EXACT, PREFIX or CONTAINS, PREFIX is the one served by the name index",
+            tags = {"anime"})
+    public ResponseEntity<Page<AnimeResponse>> search(@RequestParam("name") String name,
+                                                      @RequestParam(value = "mode", defaultValue = "PREFIX") NameSearchMode mode,
+                                                      @RequestParam(value = "ignoreCase", defaultValue = "false") boolean ignoreCase,
+                                                      @ParameterObject Pageable pageable) {
+        return ResponseEntity.ok().body(animeService.search(name, mode, ignoreCase, pageable));
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Suggest animes whose name starts with the prefix", description = "Answered from memory, the database is not queried",
+            tags = {"anime"})
+    public ResponseEntity<List<AnimeResponse>> autocomplete(@RequestParam("prefix") String prefix,
+                                                            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT));
+        return ResponseEntity.ok().body(animeService.autocomplete(prefix, boundedLimit));
+    }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Anime> findById(@PathVariable Long id) {
-        return ResponseEntity.ok().body(animeService.findByIdOrThrowBadRequestException(id));
+    public ResponseEntity<AnimeResponse> findById(@PathVariable Long id, WebRequest webRequest) {
+        AnimeResponse anime = animeService.findByIdOrThrowBadRequestException(id);
+        return conditionalGet(webRequest, AnimeChangeTracker.etagOf(anime.getId(), anime.getVersion()), anime.getUpdatedAt(), () -> anime);
     }
 
     @GetMapping("/by-id/{id}")
     //@PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Anime> findByIdAuthenticationPrincipal(@PathVariable Long id,
-                                                                 @AuthenticationPrincipal UserDetails userDetails) {
-        log.info(String.valueOf(userDetails));
+    public ResponseEntity<AnimeResponse> findByIdAuthenticationPrincipal(@PathVariable Long id,
+                                                                         @AuthenticationPrincipal UserDetails userDetails) {
+        log.debug("Anime {} requested by {}", id, userDetails);
         return ResponseEntity.ok().body(animeService.findByIdOrThrowBadRequestException(id));
     }
 
     @PostMapping
     //@PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Anime> save(@RequestBody @Valid AnimePostRequestBody anime) {
-        return new ResponseEntity<>(animeService.save(anime), HttpStatus.CREATED);
+    @Operation(summary = "Save an anime", description = "With anime.ingestion.enabled the anime is inserted together with the ones " +
+            "saved at the same time; send Prefer: respond-async to get a tracking id right away instead of waiting for it",
+            tags = {"anime"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successful Operation",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = Anime.class))),
+            @ApiResponse(responseCode = "202", description = "Queued, follow the Location header for the outcome",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = AnimeIngestionStatus.class))),
+            @ApiResponse(responseCode = "503", description = "When too many animes are waiting to be saved")
+    })
+    public ResponseEntity<?> save(@RequestBody @Valid AnimePostRequestBody anime,
+                                  @RequestHeader(value = PREFER, required = false) String prefer) {
+        if (!animeIngestionQueue.isEnabled()) {
+            return new ResponseEntity<>(animeService.save(anime), HttpStatus.CREATED);
+        }
+        AnimeIngestionQueue.Submission submission = animeIngestionQueue.submit(anime);
+        Anime savedAnime = respondAsync(prefer) ? null : submission.await(animeIngestionProperties.getWaitTimeout());
+        if (savedAnime != null) {
+            return new ResponseEntity<>(savedAnime, HttpStatus.CREATED);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/animes/ingestion/" + submission.getTrackingId()))
+                .body(submission.status());
+    }
+
+    @GetMapping("/ingestion/{trackingId}")
+    @Operation(summary = "Outcome of an anime answered with 202 by POST /animes", tags = {"anime"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation"),
+            @ApiResponse(responseCode = "400", description = "When the tracking id is unknown or expired")
+    })
+    public ResponseEntity<AnimeIngestionStatus> ingestionStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok().body(animeIngestionQueue.status(trackingId));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Save many animes at once", description = "Each anime is validated on its own, the response has one result per anime in the same order",
+            tags = {"anime"})
+    public ResponseEntity<List<AnimeBatchItemResult>> saveBatch(@RequestBody List<AnimePostRequestBody> animes) {
+        return ResponseEntity.ok().body(animeService.saveAll(animes.iterator()));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Save many animes sent as newline delimited json",
+            description = "Animes are inserted while the request body is still being read", tags = {"anime"})
+    public ResponseEntity<List<AnimeBatchItemResult>> saveBatchNdjson(HttpServletRequest request) throws IOException {
+        try (MappingIterator<AnimePostRequestBody> animes = objectMapper.readerFor(AnimePostRequestBody.class)
+                .readValues(request.getInputStream())) {
+            return ResponseEntity.ok().body(animeService.saveAll(animes));
+        }
     }
 
     @DeleteMapping("/admin/{id}")
@@ -81,8 +260,151 @@ public class AnimeController {
     }
 
     @PutMapping
-    public ResponseEntity<Void> replace(@RequestBody AnimePutRequestBody animePutRequestBody) {
-        animeService.replace(animePutRequestBody);
+    @Operation(summary = "Replace an anime", description = "Send the ETag of the anime in If-Match to only replace it if nobody changed it since",
+            tags = {"anime"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successful Operation"),
+            @ApiResponse(responseCode = "400", description = "When Anime does not exist in the database"),
+            @ApiResponse(responseCode = "412", description = "When Anime was changed since the ETag in If-Match")
+    })
+    public ResponseEntity<Void> replace(@RequestBody AnimePutRequestBody animePutRequestBody,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        animeService.replace(animePutRequestBody, AnimeChangeTracker.expectedVersion(animePutRequestBody.getId(), ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Change some fields of an anime", description = "Fields left out keep their value, If-Match works as in PUT",
+            tags = {"anime"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successful Operation"),
+            @ApiResponse(responseCode = "400", description = "When Anime does not exist in the database"),
+            @ApiResponse(responseCode = "412", description = "When Anime was changed since the ETag in If-Match")
+    })
+    public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody @Valid AnimePatchRequestBody animePatchRequestBody,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        animeService.patch(id, animePatchRequestBody, AnimeChangeTracker.expectedVersion(id, ifMatch));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Answers 304 when the client validators still match, the body supplier, and with it the repository call
+     * and the serialization, is skipped.
+     */
+    private <T> ResponseEntity<T> conditionalGet(WebRequest webRequest, String etag, Instant lastModified, Supplier<T> body) {
+        return conditionalGet(webRequest, etag, lastModified, response -> response.body(body.get()));
+    }
+
+    private <T> ResponseEntity<T> conditionalGet(WebRequest webRequest, String etag, Instant lastModified,
+                                                 Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> ok) {
+        CacheControl cacheControl = animeHttpCacheProperties.cacheControl();
+        if (webRequest.checkNotModified(etag, lastModified == null ? -1 : lastModified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl).eTag(etag);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return ok.apply(response);
+    }
+
+    /**
+     * List responses come out of {@link AnimeListResponseCache} already serialized, and gzipped when the client
+     * accepts it and the body is over the compression threshold. A strong ETag names one encoding, so the gzipped
+     * body gets its own, and a client revalidating either one gets a 304. The bodies the cache does not keep are
+     * written by Jackson and compressed by Tomcat, which only compresses responses with a weak ETag.
+     * <p>
+     * The validators are checked here rather than by {@link WebRequest#checkNotModified(String, long)}, which would
+     * put the identity ETag on the response before the encoding is known.
+     */
+    private ResponseEntity<Object> encodedListGet(WebRequest webRequest, String key, Supplier<?> body) {
+        String etag = animeChangeTracker.etag();
+        String gzipETag = gzipETag(etag);
+        Instant lastModified = animeChangeTracker.lastModified();
+        boolean acceptsGzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        CacheControl cacheControl = animeHttpCacheProperties.cacheControl();
+        String matched = acceptsGzip && ifNoneMatch(webRequest, gzipETag) ? gzipETag : ifNoneMatch(webRequest, etag) ? etag : null;
+        if (matched != null || webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                && webRequest.checkNotModified(lastModified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl)
+                    .eTag(matched == null ? etag : matched).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        EncodedResponse encoded = animeListResponseCache.get(etag, key, acceptsGzip, body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl).lastModified(lastModified)
+                .contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (encoded.getIdentity() == null) {
+            return response.eTag("W/" + etag).body(encoded.getBody());
+        }
+        if (acceptsGzip && encoded.getGzip() != null) {
+            return response.eTag(gzipETag).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.getGzip());
+        }
+        return response.eTag(etag).body(encoded.getIdentity());
+    }
+
+    private static String gzipETag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * Weak comparison, as Spring does for If-None-Match.
+     */
+    private static boolean ifNoneMatch(WebRequest webRequest, String etag) {
+        String[] ifNoneMatch = webRequest.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String value : ifNoneMatch) {
+            for (String candidate : value.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.equals("*") || (trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed).equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean respondAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.split(";")[0].trim().equalsIgnoreCase("respond-async")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String pageKey(Pageable pageable) {
+        if (pageable == null || pageable.isUnpaged()) {
+            return "unpaged";
+        }
+        return pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+    }
 }
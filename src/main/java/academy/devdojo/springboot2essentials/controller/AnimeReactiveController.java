@@ -0,0 +1,98 @@
+package academy.devdojo.springboot2essentials.controller;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.service.AnimeChangeTracker;
+import academy.devdojo.springboot2essentials.service.AnimeReactiveService;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+/**
+ * WebFlux counterpart of {@link AnimeController}, served instead of it when the "reactive" profile is active.
+ */
+@RestController
+@RequestMapping("animes")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class AnimeReactiveController {
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    private final AnimeReactiveService animeReactiveService;
+
+    @GetMapping
+    @Operation(summary = "List all the animes paginated", description = "The deafult size is 20, use the parameter size to change the default value",
+            tags = {"anime"})
+    public Mono<Page<Anime>> list(@ParameterObject Pageable pageable) {
+        return animeReactiveService.listAll(pageable);
+    }
+
+    @GetMapping("/all")
+    public Flux<Anime> listAll() {
+        return animeReactiveService.listAllNonPageable();
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all the animes as newline delimited json",
+            description = "Rows are read from the database as fast as the client consumes them", tags = {"anime"})
+    public Flux<Anime> stream() {
+        return animeReactiveService.listAllNonPageable();
+    }
+
+    @GetMapping("/find")
+    public Flux<Anime> findByName(@RequestParam("name") String name) {
+        return animeReactiveService.findByName(name);
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Suggest animes whose name starts with the prefix", description = "Answered from memory, the database is not queried",
+            tags = {"anime"})
+    public Flux<AnimeResponse> autocomplete(@RequestParam("prefix") String prefix,
+                                            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return animeReactiveService.autocomplete(prefix, Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Anime> findById(@PathVariable Long id) {
+        return animeReactiveService.findByIdOrThrowBadRequestException(id);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Anime>> save(@RequestBody @Valid AnimePostRequestBody anime) {
+        return animeReactiveService.save(anime).map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+    }
+
+    @DeleteMapping("/admin/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return animeReactiveService.delete(id).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PutMapping
+    public Mono<ResponseEntity<Void>> replace(@RequestBody AnimePutRequestBody animePutRequestBody,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return animeReactiveService.replace(animePutRequestBody, AnimeChangeTracker.expectedVersion(animePutRequestBody.getId(), ifMatch))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+}
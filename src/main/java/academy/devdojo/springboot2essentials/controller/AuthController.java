@@ -0,0 +1,35 @@
+package academy.devdojo.springboot2essentials.controller;
+
+import academy.devdojo.springboot2essentials.requests.TokenRequestBody;
+import academy.devdojo.springboot2essentials.service.TokenService;
+import academy.devdojo.springboot2essentials.wrapper.TokenResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("auth")
+@RequiredArgsConstructor
+public class AuthController {
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+
+    @PostMapping("/token")
+    @Operation(summary = "Exchange username and password for a bearer token",
+            description = "Send the token as 'Authorization: Bearer <token>', it is verified without any database or session lookup",
+            tags = {"auth"})
+    public ResponseEntity<TokenResponse> token(@RequestBody @Valid TokenRequestBody tokenRequestBody) {
+        return ResponseEntity.ok().body(tokenService.issue(authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(tokenRequestBody.getUsername(), tokenRequestBody.getPassword()))));
+    }
+}
@@ -0,0 +1,36 @@
+package academy.devdojo.springboot2essentials.controller;
+
+import academy.devdojo.springboot2essentials.requests.TokenRequestBody;
+import academy.devdojo.springboot2essentials.service.TokenService;
+import academy.devdojo.springboot2essentials.wrapper.TokenResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("auth")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class AuthReactiveController {
+    private final ReactiveAuthenticationManager reactiveAuthenticationManager;
+    private final TokenService tokenService;
+
+    @PostMapping("/token")
+    @Operation(summary = "Exchange username and password for a bearer token",
+            description = "Send the token as 'Authorization: Bearer <token>', it is verified without any database or session lookup",
+            tags = {"auth"})
+    public Mono<TokenResponse> token(@RequestBody @Valid TokenRequestBody tokenRequestBody) {
+        return reactiveAuthenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(tokenRequestBody.getUsername(), tokenRequestBody.getPassword()))
+                .map(tokenService::issue);
+    }
+}
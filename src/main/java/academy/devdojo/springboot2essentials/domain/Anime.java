@@ -9,17 +9,50 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Builder
+@Table(indexes = @Index(name = "idx_anime_name", columnList = "name"))
 public class Anime {
     @Id
+    @org.springframework.data.annotation.Id // R2DBC mapping, used by the reactive profile
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @NotEmpty(message = "The name connot be empty")
     private String name;
+    /**
+     * Bumped on every update, it is what the ETag of the anime is made of and what concurrent updates are checked against.
+     */
+    @Version
+    private Long version;
+    private Instant updatedAt;
+
+    public Anime(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Databases keep at most microseconds, truncating here keeps the value in memory and in the cache equal to the stored one.
+     */
+    public static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = now();
+    }
 }
@@ -0,0 +1,43 @@
+package academy.devdojo.springboot2essentials.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * A change other instances have to evict from their caches, written in the same transaction as the change itself.
+ * Rows are only read and written through {@code CacheInvalidationOutbox}, the entity is here for the schema.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(indexes = @Index(name = "idx_cache_invalidation_changed_at", columnList = "changedAt"))
+public class CacheInvalidation {
+    public static final String ANIME = "anime";
+    /**
+     * Nothing in this application writes users, tools that do insert a row with the username as the key.
+     */
+    public static final String USER = "user";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String entity;
+    private String entityKey;
+    /**
+     * The instance that made the change, it has already evicted it.
+     */
+    private String origin;
+    private Instant changedAt;
+}
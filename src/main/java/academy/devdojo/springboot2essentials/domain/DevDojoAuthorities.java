@@ -0,0 +1,53 @@
+package academy.devdojo.springboot2essentials.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Shared, immutable authority sets. Each role has a single {@link GrantedAuthority} instance and each
+ * comma separated authorities column is parsed only once, later calls are a map lookup without allocation.
+ */
+public final class DevDojoAuthorities {
+    private static final int MAX_CACHED_COMBINATIONS = 1024;
+
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+    private static final Map<String, Set<GrantedAuthority>> PARSED = new ConcurrentHashMap<>();
+
+    private DevDojoAuthorities() {
+    }
+
+    public static GrantedAuthority of(String authority) {
+        return AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+
+    public static Set<GrantedAuthority> of(Collection<String> authorities) {
+        return authorities.stream()
+                .map(DevDojoAuthorities::of)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static Set<GrantedAuthority> parse(String authorities) {
+        if (authorities == null || authorities.isBlank()) {
+            return Set.of();
+        }
+        Set<GrantedAuthority> parsed = PARSED.get(authorities);
+        if (parsed != null) {
+            return parsed;
+        }
+        parsed = of(Arrays.stream(authorities.split(","))
+                .map(String::trim)
+                .filter(authority -> !authority.isEmpty())
+                .toList());
+        if (PARSED.size() < MAX_CACHED_COMBINATIONS) {
+            PARSED.putIfAbsent(authorities, parsed);
+        }
+        return parsed;
+    }
+}
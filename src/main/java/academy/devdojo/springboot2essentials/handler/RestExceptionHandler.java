@@ -3,8 +3,11 @@ package academy.devdojo.springboot2essentials.handler;
 import academy.devdojo.springboot2essentials.execption.BadRequestException;
 import academy.devdojo.springboot2essentials.execption.BadRequestExceptionDetails;
 import academy.devdojo.springboot2essentials.execption.ExceptionDetails;
+import academy.devdojo.springboot2essentials.execption.PreconditionFailedException;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
 import academy.devdojo.springboot2essentials.execption.ValidationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +24,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
+@Profile("!reactive")
 @Slf4j
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler(BadRequestException.class)
@@ -36,6 +40,32 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         );
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ExceptionDetails> handlePreconditionFailedException(PreconditionFailedException pfe) {
+        return new ResponseEntity<>(
+                ExceptionDetails.builder()
+                        .timestamp(LocalDateTime.now())
+                        .status(HttpStatus.PRECONDITION_FAILED.value())
+                        .title("Precondition Failed, fetch the anime again")
+                        .details(pfe.getMessage())
+                        .developerMessage(pfe.getClass().getName())
+                        .build(), HttpStatus.PRECONDITION_FAILED
+        );
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ExceptionDetails> handleServiceUnavailableException(ServiceUnavailableException sue) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ExceptionDetails.builder()
+                        .timestamp(LocalDateTime.now())
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .title("Service Unavailable, try again later")
+                        .details(sue.getMessage())
+                        .developerMessage(sue.getClass().getName())
+                        .build());
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException exception, HttpHeaders headers, HttpStatus status, WebRequest request) {
         List<FieldError> fieldErrors = exception.getBindingResult().getFieldErrors();
@@ -0,0 +1,12 @@
+package academy.devdojo.springboot2essentials.repository;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+
+import java.util.List;
+
+public interface AnimeBatchRepository {
+    /**
+     * Inserts every anime with a single batched statement and returns copies carrying the generated ids, in order.
+     */
+    List<Anime> insertAll(List<Anime> animes);
+}
@@ -0,0 +1,51 @@
+package academy.devdojo.springboot2essentials.repository;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class AnimeBatchRepositoryImpl implements AnimeBatchRepository {
+    private static final String INSERT_ANIME = "insert into anime (name, version, updated_at) values (?, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationOutbox cacheInvalidationOutbox;
+
+    @Override
+    @Transactional
+    public List<Anime> insertAll(List<Anime> animes) {
+        List<Anime> inserted = jdbcTemplate.execute((ConnectionCallback<List<Anime>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ANIME, Statement.RETURN_GENERATED_KEYS)) {
+                Instant updatedAt = Anime.now();
+                for (Anime anime : animes) {
+                    statement.setString(1, anime.getName());
+                    statement.setTimestamp(2, Timestamp.from(updatedAt));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Anime> savedAnimes = new ArrayList<>(animes.size());
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    for (Anime anime : animes) {
+                        generatedKeys.next();
+                        savedAnimes.add(new Anime(generatedKeys.getLong(1), anime.getName(), 0L, updatedAt));
+                    }
+                }
+                return savedAnimes;
+            }
+        });
+        cacheInvalidationOutbox.record(CacheInvalidation.ANIME, inserted.stream().map(Anime::getId).toList());
+        return inserted;
+    }
+}
@@ -0,0 +1,35 @@
+package academy.devdojo.springboot2essentials.repository;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@Profile("reactive")
+public interface AnimeReactiveRepository extends R2dbcRepository<Anime, Long> {
+    Flux<Anime> findAllBy(Pageable pageable);
+
+    Flux<Anime> findByName(String name);
+
+    /**
+     * Same statement as {@link AnimeRepository#updateName}, R2DBC has no version check of its own.
+     */
+    @Modifying
+    @Query("update anime set name = :name, version = version + 1, updated_at = :updatedAt where id = :id")
+    Mono<Integer> updateName(@Param("id") Long id, @Param("name") String name, @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Same statement as {@link AnimeRepository#updateNameIfVersion}, 0 rows when the anime is gone or at another version.
+     */
+    @Modifying
+    @Query("update anime set name = :name, version = version + 1, updated_at = :updatedAt where id = :id and version = :version")
+    Mono<Integer> updateNameIfVersion(@Param("id") Long id, @Param("name") String name, @Param("version") Long version,
+                                      @Param("updatedAt") Instant updatedAt);
+}
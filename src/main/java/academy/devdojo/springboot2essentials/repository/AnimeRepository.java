@@ -1,10 +1,99 @@
 package academy.devdojo.springboot2essentials.repository;
 
+import academy.devdojo.springboot2essentials.config.CacheConfig;
 import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import javax.transaction.Transactional;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface AnimeRepository extends JpaRepository<Anime, Long> {
-    List<Anime> findByName(String name);
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+/**
+ * Entities are only loaded for writes, the read methods select {@link AnimeResponse} directly.
+ */
+public interface AnimeRepository extends JpaRepository<Anime, Long>, AnimeBatchRepository {
+    @Cacheable(cacheNames = CacheConfig.ANIMES_BY_ID, unless = "#result == null and !@animeCacheProperties.cacheMissingIds")
+    Optional<AnimeResponse> findProjectedById(Long id);
+
+    /**
+     * Same row as {@link #findProjectedById(Long)} without the cache, for reading back a write of the current
+     * transaction while the cached value is still the old one.
+     */
+    @Query("select new academy.devdojo.springboot2essentials.wrapper.AnimeResponse(a.id, a.name, a.version, a.updatedAt) " +
+            "from Anime a where a.id = :id")
+    Optional<AnimeResponse> findCurrentById(@Param("id") Long id);
+
+    Page<AnimeResponse> findAllProjectedBy(Pageable pageable);
+
+    List<AnimeResponse> findAllProjectedBy();
+
+    List<AnimeResponse> findByIdIn(Collection<Long> ids);
+
+    List<AnimeResponse> findByName(String name);
+
+    @Transactional
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.version = a.version + 1, a.updatedAt = :updatedAt where a.id = :id")
+    int updateName(@Param("id") Long id, @Param("name") String name, @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Single statement optimistic update, 0 means the anime is gone or someone else changed it since {@code version}.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.version = a.version + 1, a.updatedAt = :updatedAt " +
+            "where a.id = :id and a.version = :version")
+    int updateNameIfVersion(@Param("id") Long id, @Param("name") String name, @Param("version") Long version,
+                            @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Rows written before the version column existed, Hibernate cannot update or delete them while it is null.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Anime a set a.version = 0 where a.version is null")
+    int initializeMissingVersions();
+
+    Page<AnimeResponse> findByName(String name, Pageable pageable);
+
+    Page<AnimeResponse> findByNameIgnoreCase(String name, Pageable pageable);
+
+    Page<AnimeResponse> findByNameStartingWith(String prefix, Pageable pageable);
+
+    Page<AnimeResponse> findByNameStartingWithIgnoreCase(String prefix, Pageable pageable);
+
+    Page<AnimeResponse> findByNameContaining(String fragment, Pageable pageable);
+
+    Page<AnimeResponse> findByNameContainingIgnoreCase(String fragment, Pageable pageable);
+
+    Slice<AnimeResponse> findAllBy(Pageable pageable);
+
+    Slice<AnimeResponse> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Forward-only cursor over the whole table, must be consumed inside a transaction and closed afterwards.
+     * On MySQL the fetch size is only honoured with {@code useCursorFetch=true} on the connection url.
+     */
+    @Query("select new academy.devdojo.springboot2essentials.wrapper.AnimeResponse(a.id, a.name, a.version, a.updatedAt) from Anime a")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    Stream<AnimeResponse> streamAll();
 }
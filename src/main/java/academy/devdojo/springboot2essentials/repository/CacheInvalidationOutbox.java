@@ -0,0 +1,66 @@
+package academy.devdojo.springboot2essentials.repository;
+
+import academy.devdojo.springboot2essentials.config.CacheInvalidationProperties;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The cache_invalidation table, written with plain JDBC so it joins whatever transaction the change is made in
+ * and never loads entities when read.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CacheInvalidationOutbox {
+    private static final String INSERT = "insert into cache_invalidation (entity, entity_key, origin, changed_at) values (?, ?, ?, ?)";
+    private static final String SELECT_AFTER = "select id, entity, entity_key, origin, changed_at from cache_invalidation where id > ? order by id limit ?";
+    private static final RowMapper<CacheInvalidation> ROW_MAPPER = (resultSet, rowNum) -> new CacheInvalidation(
+            resultSet.getLong("id"),
+            resultSet.getString("entity"),
+            resultSet.getString("entity_key"),
+            resultSet.getString("origin"),
+            resultSet.getTimestamp("changed_at").toInstant());
+
+    private final String origin = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationProperties properties;
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void record(String entity, Collection<?> keys) {
+        if (!properties.isEnabled() || keys.isEmpty()) {
+            return;
+        }
+        Timestamp changedAt = Timestamp.from(Anime.now());
+        jdbcTemplate.batchUpdate(INSERT, keys, keys.size(), (statement, key) -> {
+            statement.setString(1, entity);
+            statement.setString(2, String.valueOf(key));
+            statement.setString(3, origin);
+            statement.setTimestamp(4, changedAt);
+        });
+    }
+
+    public List<CacheInvalidation> findAfter(long id, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER, ROW_MAPPER, id, limit);
+    }
+
+    public long maxId() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    public int deleteOlderThan(Instant changedAt) {
+        return jdbcTemplate.update("delete from cache_invalidation where changed_at < ?", Timestamp.from(changedAt));
+    }
+}
@@ -0,0 +1,45 @@
+package academy.devdojo.springboot2essentials.repository;
+
+import academy.devdojo.springboot2essentials.config.CacheInvalidationProperties;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Writes the same cache_invalidation rows as {@link CacheInvalidationOutbox} from the "reactive" profile, through
+ * R2DBC so the rows join the transaction of the change and servlet instances sharing the database drop what they
+ * cached of it.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class CacheInvalidationReactiveOutbox {
+    private static final String INSERT = "insert into cache_invalidation (entity, entity_key, origin, changed_at) values (:entity, :entityKey, :origin, :changedAt)";
+
+    private final DatabaseClient databaseClient;
+    private final CacheInvalidationOutbox cacheInvalidationOutbox;
+    private final CacheInvalidationProperties properties;
+
+    public Mono<Void> record(String entity, Collection<?> keys) {
+        if (!properties.isEnabled() || keys.isEmpty()) {
+            return Mono.empty();
+        }
+        Instant changedAt = Anime.now();
+        return Flux.fromIterable(keys)
+                .concatMap(key -> databaseClient.sql(INSERT)
+                        .bind("entity", entity)
+                        .bind("entityKey", String.valueOf(key))
+                        .bind("origin", cacheInvalidationOutbox.getOrigin())
+                        .bind("changedAt", changedAt)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+}
@@ -1,8 +1,18 @@
 package academy.devdojo.springboot2essentials.repository;
 
+import academy.devdojo.springboot2essentials.config.CacheConfig;
 import academy.devdojo.springboot2essentials.domain.DevDojoUser;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface DevDojoUserRepository extends JpaRepository<DevDojoUser, Long> {
     DevDojoUser findByUsername(String username);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#p0.username")
+    <S extends DevDojoUser> S save(S devDojoUser);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#p0.username")
+    void delete(DevDojoUser devDojoUser);
 }
@@ -0,0 +1,22 @@
+package academy.devdojo.springboot2essentials.requests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Pattern;
+
+/**
+ * Fields left out, or sent as null, keep their current value.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimePatchRequestBody {
+    @Pattern(regexp = ".*\\S.*", message = "The name connot be empty")
+    @Schema(description = "This is the Anime's name", example = "Tensei Shittara Slime Datta ken")
+    private String name;
+}
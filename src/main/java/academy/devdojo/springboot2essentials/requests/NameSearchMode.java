@@ -0,0 +1,7 @@
+package academy.devdojo.springboot2essentials.requests;
+
+public enum NameSearchMode {
+    EXACT,
+    PREFIX,
+    CONTAINS
+}
@@ -0,0 +1,19 @@
+package academy.devdojo.springboot2essentials.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenRequestBody {
+    @NotEmpty(message = "The username cannot be empty")
+    private String username;
+    @NotEmpty(message = "The password cannot be empty")
+    private String password;
+}
@@ -0,0 +1,86 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeAsyncProperties;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
+import academy.devdojo.springboot2essentials.requests.NameSearchMode;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking {@link AnimeService} reads on the anime executor behind the {@link DatabaseConcurrencyLimiter},
+ * so the servlet thread is handed back to the container while the query runs. A read still running after the
+ * request timeout is answered with 503, as Spring MVC does when an async request times out.
+ * <p>
+ * The executor is owned here rather than exposed as a bean: an {@code Executor} bean would replace Boot's
+ * applicationTaskExecutor, which Spring MVC runs /animes/stream and its other async requests on.
+ */
+@Service
+@ConditionalOnProperty(prefix = "anime.async", name = "enabled", havingValue = "true")
+public class AnimeAsyncService implements AutoCloseable {
+    private final AnimeService animeService;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final ThreadPoolTaskExecutor animeExecutor;
+    private final Duration requestTimeout;
+
+    public AnimeAsyncService(AnimeService animeService,
+                             DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                             AnimeAsyncProperties animeAsyncProperties) {
+        this.animeService = animeService;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.requestTimeout = animeAsyncProperties.getRequestTimeout();
+        this.animeExecutor = new ThreadPoolTaskExecutor();
+        animeExecutor.setThreadNamePrefix("anime-async-");
+        animeExecutor.setCorePoolSize(animeAsyncProperties.getCorePoolSize());
+        animeExecutor.setMaxPoolSize(animeAsyncProperties.getMaxPoolSize());
+        animeExecutor.setQueueCapacity(animeAsyncProperties.getQueueCapacity());
+        animeExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        animeExecutor.initialize();
+    }
+
+    public CompletableFuture<Page<AnimeResponse>> listAll(Pageable pageable) {
+        return supplyAsync(() -> animeService.listAll(pageable));
+    }
+
+    public CompletableFuture<Page<AnimeResponse>> search(String name, NameSearchMode mode, boolean ignoreCase, Pageable pageable) {
+        return supplyAsync(() -> animeService.search(name, mode, ignoreCase, pageable));
+    }
+
+    public CompletableFuture<AnimeResponse> findByIdOrThrowBadRequestException(Long id) {
+        return supplyAsync(() -> animeService.findByIdOrThrowBadRequestException(id));
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(() -> databaseConcurrencyLimiter.call(supplier), animeExecutor)
+                    .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .exceptionally(AnimeAsyncService::rethrow);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many concurrent requests, try again later");
+        }
+    }
+
+    private static <T> T rethrow(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof TimeoutException) {
+            throw new ServiceUnavailableException("The request took too long, try again later");
+        }
+        throw throwable instanceof CompletionException completionException ? completionException : new CompletionException(throwable);
+    }
+
+    @Override
+    public void close() {
+        animeExecutor.shutdown();
+    }
+}
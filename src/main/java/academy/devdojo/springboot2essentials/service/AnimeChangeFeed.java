@@ -0,0 +1,376 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeChangesProperties;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
+import academy.devdojo.springboot2essentials.wrapper.AnimeChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The anime changes served by /animes/changes. Events are serialized once into a ring buffer of
+ * {@link AnimeChangesProperties#getBufferSize()} entries and every subscriber is only a position in it, so
+ * memory does not grow with the number of subscribers nor with how far behind they are.
+ * <p>
+ * Publishing never waits on a subscriber: a dispatcher thread hands the subscribers that have something to
+ * read to the sender threads, each subscriber drained by at most one of them at a time. A subscriber whose
+ * position was overwritten, or whose socket does not take an event within the send timeout, is disconnected.
+ * A write cannot be interrupted, so the sender stuck in it is replaced by a new one until the server times the
+ * write out. There is at most one replacement per sender thread: past about twice
+ * {@link AnimeChangesProperties#getSenderThreads()} clients that never read, delivery to everyone stalls until
+ * the server write timeout frees the senders.
+ * <p>
+ * A disconnected subscriber reconnecting with a Last-Event-ID that is no longer buffered, or was issued before a
+ * restart, gets a {@value #RESET} event telling it to fetch the animes again.
+ */
+@Component
+@Slf4j
+public class AnimeChangeFeed implements AutoCloseable {
+    public static final String RESET = "reset";
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AnimeChangesProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AtomicReferenceArray<Entry> ring;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "anime-changes-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ThreadPoolExecutor senders;
+    private final Map<AnimeChangeEvent.Type, Counter> published = new EnumMap<>(AnimeChangeEvent.Type.class);
+    private final Map<String, Counter> disconnected = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    /**
+     * Senders started in place of the ones stuck writing to a stalled subscriber, at most one per sender thread.
+     */
+    private int replacementSenders;
+    /**
+     * Sequence of the last event published, the first one is 1.
+     */
+    private volatile long head;
+
+    public AnimeChangeFeed(AnimeChangesProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ring = new AtomicReferenceArray<>(properties.getBufferSize());
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(properties.getSenderThreads(), properties.getSenderThreads(),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "anime-changes-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (AnimeChangeEvent.Type type : AnimeChangeEvent.Type.values()) {
+            published.put(type, Counter.builder("anime.changes.published")
+                    .description("Anime changes published to /animes/changes")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("anime.changes.subscribers", subscribers, Set::size)
+                .description("Open /animes/changes connections")
+                .register(meterRegistry);
+        long heartbeat = properties.getHeartbeatInterval().toMillis();
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        dispatcher.scheduleWithFixedDelay(this::disconnectStalled, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Inside a transaction the event is published after commit, a rolled back change is never announced.
+     */
+    public void publish(AnimeChangeEvent.Type type, Long id, String name) {
+        AnimeChangeEvent event = new AnimeChangeEvent(type, id, name, Anime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(event);
+                }
+            });
+        } else {
+            append(event);
+        }
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(properties.getTimeout().toMillis()), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String lastEventId) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ServiceUnavailableException("Too many clients following the anime changes, try again later");
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        subscriber.resumeAfter(lastEventId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void append(AnimeChangeEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (this) {
+            long sequence = head + 1;
+            ring.set(index(sequence), new Entry(sequence, event.getType().name().toLowerCase(Locale.ROOT), data));
+            head = sequence;
+        }
+        published.get(event.getType()).increment();
+        dispatcher.execute(() -> subscribers.forEach(Subscriber::schedule));
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    private void disconnectStalled() {
+        long timeout = properties.getSendTimeout().toNanos();
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stalledSince(now, timeout)) {
+                // the emitter is completed by its sender once the write gives up
+                subscriber.disconnect("stalled");
+            }
+        }
+    }
+
+    private boolean addReplacementSender() {
+        synchronized (senders) {
+            if (replacementSenders >= properties.getSenderThreads()) {
+                return false;
+            }
+            replacementSenders++;
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+            senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+            return true;
+        }
+    }
+
+    private void removeReplacementSender() {
+        synchronized (senders) {
+            replacementSenders--;
+            senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private Counter disconnected(String reason) {
+        return disconnected.computeIfAbsent(reason, ignored -> Counter.builder("anime.changes.disconnected")
+                .description("Subscribers of /animes/changes dropped by the server, or gone")
+                .tag("reason", reason)
+                .register(meterRegistry));
+    }
+
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final String name;
+        private final String data;
+
+        private Entry(long sequence, String name, String data) {
+            this.sequence = sequence;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /**
+         * Sequence of the last event sent, only touched by the sender draining this subscriber.
+         */
+        private long cursor;
+        private boolean reset;
+        /**
+         * Starts due: the response headers only go out with the first write, clients wait for them.
+         */
+        private volatile boolean heartbeatDue = true;
+        /**
+         * Guarded by the subscriber, so the watchdog and the sender agree on whether the sender was replaced.
+         */
+        private long sendingSince;
+        private boolean replaced;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void resumeAfter(String lastEventId) {
+            long current = head;
+            cursor = current;
+            if (lastEventId == null || lastEventId.isBlank()) {
+                return;
+            }
+            String prefix = epoch + "-";
+            try {
+                long sequence = lastEventId.startsWith(prefix) ? Long.parseLong(lastEventId.substring(prefix.length())) : -1;
+                if (sequence >= 0 && sequence <= current && current - sequence <= ring.length()) {
+                    cursor = sequence;
+                    return;
+                }
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+            reset = true;
+        }
+
+        private void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    deliver();
+                    scheduled.set(false);
+                } while (!closed && (cursor < head || heartbeatDue) && scheduled.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                disconnect("closed");
+            } finally {
+                if (closed) {
+                    complete();
+                }
+            }
+        }
+
+        private void deliver() throws IOException {
+            boolean sent = false;
+            if (reset) {
+                send(SseEmitter.event().id(eventId(cursor)).name(RESET).data(""));
+                reset = false;
+                sent = true;
+            }
+            long last = head;
+            while (!closed && cursor < last) {
+                long next = cursor + 1;
+                Entry entry = ring.get(index(next));
+                if (entry == null || entry.sequence != next) {
+                    disconnect("slow");
+                    return;
+                }
+                send(SseEmitter.event().id(eventId(next)).name(entry.name).data(entry.data));
+                cursor = next;
+                sent = true;
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                if (!sent && !closed) {
+                    send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                sendingSince = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sendingSince = 0;
+                    if (replaced) {
+                        replaced = false;
+                        removeReplacementSender();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Also starts a sender in place of the one stuck in the write, when the limit allows it.
+         */
+        private synchronized boolean stalledSince(long now, long timeout) {
+            if (sendingSince == 0 || now - sendingSince <= timeout) {
+                return false;
+            }
+            if (!replaced) {
+                replaced = addReplacementSender();
+            }
+            return true;
+        }
+
+        private void disconnect(String reason) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            disconnected(reason).increment();
+            if (!"closed".equals(reason)) {
+                log.debug("Disconnected a {} subscriber of the anime changes at {}", reason, eventId(cursor));
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed
+            }
+        }
+    }
+}
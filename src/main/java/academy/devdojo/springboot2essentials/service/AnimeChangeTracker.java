@@ -0,0 +1,79 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.execption.PreconditionFailedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validators for the anime collection and for a single anime, computed without querying or serializing anything.
+ * The collection validator is a generation bumped on every write made through this instance, prefixed with a
+ * per-start epoch so a restart never hands out an ETag that was issued for other data.
+ */
+@Component
+public class AnimeChangeTracker {
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Instant lastModified = Anime.now();
+
+    /**
+     * Inside a transaction the generation moves after commit, otherwise a concurrent read could pair the new ETag
+     * with the data that is about to be replaced.
+     */
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance();
+                }
+            });
+        } else {
+            advance();
+        }
+    }
+
+    private void advance() {
+        lastModified = Anime.now();
+        generation.incrementAndGet();
+    }
+
+    public String etag() {
+        return "\"" + epoch + "-" + generation.get() + "\"";
+    }
+
+    public Instant lastModified() {
+        return lastModified;
+    }
+
+    public static String etagOf(Long id, Long version) {
+        return "\"" + id + "-" + (version == null ? 0 : version) + "\"";
+    }
+
+    /**
+     * The version an If-Match header asks the update to be applied on, null when there is no precondition.
+     * Anything that is not a strong ETag of this anime can never match, so it fails the precondition.
+     */
+    public static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        for (String etag : ifMatch.split(",")) {
+            String candidate = etag.trim();
+            if (candidate.startsWith(prefix) && candidate.endsWith("\"") && candidate.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(candidate.substring(prefix.length(), candidate.length() - 1));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours, try the next one
+                }
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not hold an ETag of anime " + id);
+    }
+}
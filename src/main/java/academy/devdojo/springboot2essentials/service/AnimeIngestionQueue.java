@@ -0,0 +1,240 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeIngestionProperties;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.execption.BadRequestException;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
+import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2essentials.wrapper.AnimeIngestionStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind for POST /animes when anime.ingestion.enabled is set. Request threads only validate and queue the
+ * anime; a single writer thread takes whatever is queued, up to {@link AnimeIngestionProperties#getMaxBatchSize()},
+ * and inserts it in one transaction, so under load many requests share one commit.
+ * <p>
+ * A full queue is answered with 503 rather than blocking the request thread. When a batch fails its animes are
+ * inserted one at a time, so one bad anime does not fail the others.
+ */
+@Component
+@Slf4j
+public class AnimeIngestionQueue implements AutoCloseable {
+    private static final long POLL_MILLIS = 100;
+
+    private final AnimeService animeService;
+    private final AnimeIngestionProperties properties;
+    private final BlockingQueue<Submission> queue;
+    private final Cache<String, Submission> submissions;
+    private final Thread writer;
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+    private final Timer created;
+    private final Timer failed;
+    private volatile boolean closed;
+
+    public AnimeIngestionQueue(AnimeService animeService, AnimeIngestionProperties properties, MeterRegistry meterRegistry) {
+        this.animeService = animeService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.submissions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumResults())
+                .expireAfterWrite(properties.getResultRetention())
+                .build();
+        Gauge.builder("anime.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Animes queued by POST /animes and not inserted yet")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("anime.ingestion.rejected")
+                .description("Animes answered with 503 because the ingestion queue was full")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("anime.ingestion.batch.size")
+                .description("Animes inserted per transaction by the ingestion writer")
+                .register(meterRegistry);
+        this.created = latency(meterRegistry, "created");
+        this.failed = latency(meterRegistry, "failed");
+        this.writer = new Thread(this::write, "anime-ingestion-writer");
+        this.writer.setDaemon(true);
+        if (properties.isEnabled()) {
+            writer.start();
+        }
+    }
+
+    private static Timer latency(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("anime.ingestion.latency")
+                .description("Time from queuing an anime to its commit")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * The anime has to be validated already. {@link #closed} is read again once the anime is queued: the writer may
+     * have seen the queue empty and stopped in between, and nothing would take it anymore.
+     */
+    public Submission submit(AnimePostRequestBody animePostRequestBody) {
+        if (closed) {
+            throw shuttingDown();
+        }
+        Submission submission = new Submission(animePostRequestBody.getName());
+        submissions.put(submission.getTrackingId(), submission);
+        if (!queue.offer(submission)) {
+            submissions.invalidate(submission.getTrackingId());
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many animes waiting to be saved, try again later");
+        }
+        if (closed && queue.remove(submission)) {
+            submissions.invalidate(submission.getTrackingId());
+            ServiceUnavailableException shuttingDown = shuttingDown();
+            submission.result.completeExceptionally(shuttingDown);
+            throw shuttingDown;
+        }
+        return submission;
+    }
+
+    private static ServiceUnavailableException shuttingDown() {
+        return new ServiceUnavailableException("The application is shutting down, try again later");
+    }
+
+    public AnimeIngestionStatus status(String trackingId) {
+        Submission submission = submissions.getIfPresent(trackingId);
+        if (submission == null) {
+            throw new BadRequestException("Tracking id not Found");
+        }
+        return submission.status();
+    }
+
+    private void write() {
+        List<Submission> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getMaxBatchSize() - 1);
+                insert(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void insert(List<Submission> batch) {
+        batchSize.record(batch.size());
+        List<Anime> savedAnimes;
+        try {
+            savedAnimes = animeService.insertAll(batch.stream()
+                    .map(submission -> Anime.builder().name(submission.name).build())
+                    .toList());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                Submission submission = batch.get(0);
+                log.warn("Queued anime {} was not inserted: {}", submission.getTrackingId(), e.getMessage());
+                failed.record(System.nanoTime() - submission.queuedAt, TimeUnit.NANOSECONDS);
+                submission.result.completeExceptionally(e);
+                return;
+            }
+            log.warn("Batch of {} queued animes was not inserted, inserting them one at a time: {}", batch.size(), e.getMessage());
+            batch.forEach(submission -> insert(List.of(submission)));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Submission submission = batch.get(i);
+            created.record(System.nanoTime() - submission.queuedAt, TimeUnit.NANOSECONDS);
+            submission.result.complete(savedAnimes.get(i));
+        }
+    }
+
+    /**
+     * Animes already queued are still inserted, for at most the wait timeout; the ones left are failed, so their
+     * tracking ids do not stay pending.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        if (writer.isAlive()) {
+            writer.join(properties.getWaitTimeout().toMillis());
+        }
+        List<Submission> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            log.warn("{} queued animes were not inserted before shutdown", left.size());
+            left.forEach(submission -> submission.result.completeExceptionally(shuttingDown()));
+        }
+    }
+
+    public static final class Submission {
+        private final String trackingId = UUID.randomUUID().toString();
+        private final String name;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<Anime> result = new CompletableFuture<>();
+
+        private Submission(String name) {
+            this.name = name;
+        }
+
+        public String getTrackingId() {
+            return trackingId;
+        }
+
+        /**
+         * @return the saved anime, or null when it was not committed within the timeout
+         */
+        public Anime await(Duration timeout) {
+            try {
+                return result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for the anime to be saved");
+            }
+        }
+
+        public AnimeIngestionStatus status() {
+            AnimeIngestionStatus.AnimeIngestionStatusBuilder status = AnimeIngestionStatus.builder()
+                    .trackingId(trackingId)
+                    .name(name);
+            if (!result.isDone()) {
+                return status.status(AnimeIngestionStatus.Status.PENDING).build();
+            }
+            try {
+                return status.status(AnimeIngestionStatus.Status.CREATED).id(result.join().getId()).build();
+            } catch (RuntimeException e) {
+                Throwable cause = NestedExceptionUtils.getMostSpecificCause(e.getCause() == null ? e : e.getCause());
+                return status.status(AnimeIngestionStatus.Status.FAILED).message(cause.getMessage()).build();
+            }
+        }
+    }
+}
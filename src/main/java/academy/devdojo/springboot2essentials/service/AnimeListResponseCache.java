@@ -0,0 +1,194 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeListCacheProperties;
+import academy.devdojo.springboot2essentials.config.ReadWriteRoutingDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Anime list responses kept as the bytes that go on the wire, so a repeated list call skips the query and Jackson.
+ * The gzipped copy is only made the first time a client accepting gzip asks for the entry. Entries belong to the
+ * collection ETag they were built under, the first lookup with a newer ETag drops them all.
+ * <p>
+ * Bodies over {@link AnimeListCacheProperties#getMaximumEntrySize()} are not cached, nor anything when the cache is
+ * disabled: those are written by Jackson straight to the response and compressed by the server.
+ */
+@Component
+public class AnimeListResponseCache {
+    private static final String CACHE_NAME = "animeListResponses";
+
+    private final ObjectMapper objectMapper;
+    private final AnimeListCacheProperties properties;
+    private final Compression compression;
+    private final Cache<String, EncodedResponse> responses;
+    private volatile String etag;
+
+    public AnimeListResponseCache(ObjectMapper objectMapper, AnimeListCacheProperties properties,
+                                  ServerProperties serverProperties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.compression = serverProperties.getCompression();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .<String, EncodedResponse>weigher((key, response) -> response.size())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+    }
+
+    /**
+     * The response for the key under the given collection ETag, the supplier is only called on a miss. It reads
+     * from the primary even with the cache disabled: the body goes out with the ETag, and clients keep both until
+     * the next write.
+     */
+    public EncodedResponse get(String etag, String key, boolean acceptsGzip, Supplier<?> body) {
+        if (!properties.isEnabled()) {
+            return EncodedResponse.streamed(ReadWriteRoutingDataSource.onPrimary(body));
+        }
+        if (!Objects.equals(this.etag, etag)) {
+            this.etag = etag;
+            responses.invalidateAll();
+        }
+        String cacheKey = etag + key;
+        EncodedResponse[] streamed = new EncodedResponse[1];
+        EncodedResponse encoded = responses.get(cacheKey, ignored -> {
+            EncodedResponse response = encode(ReadWriteRoutingDataSource.onPrimary(body));
+            if (response.getIdentity() == null) {
+                streamed[0] = response;
+                return null;
+            }
+            return response;
+        });
+        if (encoded == null) {
+            return streamed[0];
+        }
+        if (acceptsGzip && encoded.gzipIfCompressible()) {
+            // weighed again with the gzipped copy
+            responses.asMap().replace(cacheKey, encoded, encoded);
+        }
+        return encoded;
+    }
+
+    private EncodedResponse encode(Object body) {
+        BoundedOutputStream identity = new BoundedOutputStream(
+                Math.min(properties.getMaximumEntrySize().toBytes(), properties.getMaximumSize().toBytes()));
+        try {
+            objectMapper.writeValue(identity, body);
+        } catch (IOException e) {
+            if (identity.overflowed) {
+                return EncodedResponse.streamed(body);
+            }
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = identity.toByteArray();
+        return new EncodedResponse(bytes, null,
+                compression.getEnabled() && bytes.length >= compression.getMinResponseSize().toBytes());
+    }
+
+    public static final class EncodedResponse {
+        private final byte[] identity;
+        private final Object body;
+        private final boolean compressible;
+        private volatile byte[] gzip;
+
+        private EncodedResponse(byte[] identity, Object body, boolean compressible) {
+            this.identity = identity;
+            this.body = body;
+            this.compressible = compressible;
+        }
+
+        private static EncodedResponse streamed(Object body) {
+            return new EncodedResponse(null, body, false);
+        }
+
+        /**
+         * The serialized body, null when it was not cached and {@link #getBody()} is to be written instead.
+         */
+        public byte[] getIdentity() {
+            return identity;
+        }
+
+        public Object getBody() {
+            return body;
+        }
+
+        /**
+         * Null until a client accepting gzip asked for it, or when the body is under the compression threshold.
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        /**
+         * @return whether the gzipped copy was made by this call
+         */
+        private synchronized boolean gzipIfCompressible() {
+            if (!compressible || gzip != null) {
+                return false;
+            }
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(identity.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                out.write(identity);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            gzip = gzipped.toByteArray();
+            return true;
+        }
+
+        int size() {
+            byte[] gzipped = gzip;
+            return identity.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+
+    /**
+     * Gives up as soon as the body grows past the limit, so a body too large to cache is never held whole.
+     */
+    private static final class BoundedOutputStream extends OutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final long limit;
+        private boolean overflowed;
+
+        private BoundedOutputStream(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureRoom(1);
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureRoom(len);
+            bytes.write(b, off, len);
+        }
+
+        private void ensureRoom(int len) throws IOException {
+            if (bytes.size() + (long) len > limit) {
+                overflowed = true;
+                throw new IOException("Body is over " + limit + " bytes");
+            }
+        }
+
+        private byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory, case-insensitive prefix index over anime names used for autocomplete.
+ * Entries are keyed by the normalized name followed by the id, so a prefix query is a sorted range scan.
+ * Both maps are only changed inside {@code keysById.compute} for the anime, so concurrent updates of one anime
+ * cannot leave two names behind, and an update older than the indexed version is ignored.
+ */
+@Component
+public class AnimeNameIndex {
+    private static final char ID_SEPARATOR = '\u0000';
+    private static final char RANGE_END = '\uffff';
+
+    private final ConcurrentSkipListMap<String, AnimeResponse> animesByKey = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+
+    public void put(AnimeResponse anime) {
+        if (anime.getId() == null || anime.getName() == null) {
+            return;
+        }
+        String key = normalize(anime.getName()) + ID_SEPARATOR + anime.getId();
+        keysById.compute(anime.getId(), (id, previousKey) -> {
+            if (previousKey != null) {
+                AnimeResponse previous = animesByKey.get(previousKey);
+                if (previous != null && isNewer(previous, anime)) {
+                    return previousKey;
+                }
+                if (!previousKey.equals(key)) {
+                    animesByKey.remove(previousKey);
+                }
+            }
+            animesByKey.put(key, anime);
+            return key;
+        });
+    }
+
+    public void remove(Long id) {
+        keysById.computeIfPresent(id, (ignored, key) -> {
+            animesByKey.remove(key);
+            return null;
+        });
+    }
+
+    public List<AnimeResponse> findByPrefix(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        ConcurrentNavigableMap<String, AnimeResponse> range = animesByKey.subMap(normalizedPrefix, true,
+                normalizedPrefix + RANGE_END, true);
+        return range.values().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    private static boolean isNewer(AnimeResponse indexed, AnimeResponse anime) {
+        return indexed.getVersion() != null && anime.getVersion() != null && indexed.getVersion() > anime.getVersion();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,112 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
+import academy.devdojo.springboot2essentials.execption.BadRequestException;
+import academy.devdojo.springboot2essentials.execption.PreconditionFailedException;
+import academy.devdojo.springboot2essentials.mapper.AnimeMapper;
+import academy.devdojo.springboot2essentials.repository.AnimeReactiveRepository;
+import academy.devdojo.springboot2essentials.repository.CacheInvalidationReactiveOutbox;
+import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class AnimeReactiveService {
+    private final AnimeReactiveRepository animeReactiveRepository;
+    private final AnimeNameIndex animeNameIndex;
+    private final CacheInvalidationReactiveOutbox cacheInvalidationReactiveOutbox;
+    private final TransactionalOperator transactionalOperator;
+
+    public Mono<Page<Anime>> listAll(Pageable pageable) {
+        return Mono.zip(animeReactiveRepository.findAllBy(pageable).collectList(), animeReactiveRepository.count())
+                .map(pageAndTotal -> new PageImpl<>(pageAndTotal.getT1(), pageable, pageAndTotal.getT2()));
+    }
+
+    /**
+     * Rows are pulled from the database as the subscriber requests them, a slow client slows down the query
+     * instead of buffering the whole table.
+     */
+    public Flux<Anime> listAllNonPageable() {
+        return animeReactiveRepository.findAll();
+    }
+
+    public Flux<Anime> findByName(String name) {
+        return animeReactiveRepository.findByName(name);
+    }
+
+    public Flux<AnimeResponse> autocomplete(String prefix, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(animeNameIndex.findByPrefix(prefix, limit)));
+    }
+
+    public Mono<Anime> findByIdOrThrowBadRequestException(Long id) {
+        return animeReactiveRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new BadRequestException("Anime not Found")));
+    }
+
+    /**
+     * Each write records its cache_invalidation row in the same transaction, so servlet instances sharing the
+     * database evict the anime as they would for one of their own writes.
+     */
+    public Mono<Anime> save(AnimePostRequestBody animePostRequestBody) {
+        Anime anime = AnimeMapper.INSTANCE.toAnime(animePostRequestBody);
+        anime.setVersion(0L);
+        anime.setUpdatedAt(Anime.now());
+        return animeReactiveRepository.save(anime)
+                .flatMap(saved -> cacheInvalidationReactiveOutbox.record(CacheInvalidation.ANIME, List.of(saved.getId())).thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                .doOnNext(saved -> animeNameIndex.put(AnimeResponse.of(saved)));
+    }
+
+    public Mono<Void> delete(Long id) {
+        return findByIdOrThrowBadRequestException(id)
+                .flatMap(anime -> animeReactiveRepository.delete(anime)
+                        .then(cacheInvalidationReactiveOutbox.record(CacheInvalidation.ANIME, List.of(id))))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(ignored -> animeNameIndex.remove(id));
+    }
+
+    /**
+     * One UPDATE statement guarded by the version when {@code expectedVersion} is given, as
+     * {@link AnimeService#replace} does; the anime is only read again to tell a missing anime from a concurrent change,
+     * or to learn the version it got when nothing was expected.
+     */
+    public Mono<Void> replace(AnimePutRequestBody animePutRequestBody, Long expectedVersion) {
+        Long id = animePutRequestBody.getId();
+        String name = animePutRequestBody.getName();
+        if (!StringUtils.hasText(name)) {
+            return Mono.error(new BadRequestException("The name connot be empty"));
+        }
+        Instant updatedAt = Anime.now();
+        Mono<Integer> updated = expectedVersion == null
+                ? animeReactiveRepository.updateName(id, name, updatedAt)
+                : animeReactiveRepository.updateNameIfVersion(id, name, expectedVersion, updatedAt);
+        return updated
+                .flatMap(rows -> rows == 0
+                        ? animeReactiveRepository.existsById(id).flatMap(exists -> Mono.<AnimeResponse>error(exists
+                                ? new PreconditionFailedException("The anime is no longer at version " + expectedVersion + ", fetch it again before updating")
+                                : new BadRequestException("Anime not Found")))
+                        : cacheInvalidationReactiveOutbox.record(CacheInvalidation.ANIME, List.of(id))
+                        .then(expectedVersion == null
+                                ? animeReactiveRepository.findById(id).map(AnimeResponse::of)
+                                : Mono.just(new AnimeResponse(id, name, expectedVersion + 1, updatedAt))))
+                .as(transactionalOperator::transactional)
+                .doOnNext(animeNameIndex::put)
+                .then();
+    }
+}
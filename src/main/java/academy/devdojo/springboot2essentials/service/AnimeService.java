@@ -1,53 +1,359 @@
 package academy.devdojo.springboot2essentials.service;
 
+import academy.devdojo.springboot2essentials.config.AnimeBatchProperties;
+import academy.devdojo.springboot2essentials.config.AnimeCacheProperties;
+import academy.devdojo.springboot2essentials.config.AnimeLookupProperties;
+import academy.devdojo.springboot2essentials.config.CacheConfig;
+import academy.devdojo.springboot2essentials.config.ReadWriteRoutingDataSource;
 import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
 import academy.devdojo.springboot2essentials.execption.BadRequestException;
+import academy.devdojo.springboot2essentials.execption.PreconditionFailedException;
 import academy.devdojo.springboot2essentials.mapper.AnimeMapper;
 import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import academy.devdojo.springboot2essentials.repository.CacheInvalidationOutbox;
+import academy.devdojo.springboot2essentials.requests.AnimePatchRequestBody;
 import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.requests.NameSearchMode;
+import academy.devdojo.springboot2essentials.wrapper.AnimeBatchItemResult;
+import academy.devdojo.springboot2essentials.wrapper.AnimeChangeEvent;
+import academy.devdojo.springboot2essentials.wrapper.AnimeLookupResponse;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
-import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
+@Timed(value = "anime.service", description = "Time spent in AnimeService methods")
 public class AnimeService {
 
     private final AnimeRepository animeRepository;
+    private final AnimeNameIndex animeNameIndex;
+    private final CacheManager cacheManager;
+    private final Validator validator;
+    private final AnimeBatchProperties animeBatchProperties;
+    private final AnimeChangeTracker animeChangeTracker;
+    private final CacheInvalidationOutbox cacheInvalidationOutbox;
+    private final AnimeChangeFeed animeChangeFeed;
+    private final AnimeLookupProperties animeLookupProperties;
+    private final AnimeCacheProperties animeCacheProperties;
 
-    public Page<Anime> listAll(Pageable pageable) {
-        return animeRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<AnimeResponse> listAll(Pageable pageable) {
+        return animeRepository.findAllProjectedBy(pageable);
     }
-    public List<Anime> listAllNonPageable() {
-        return animeRepository.findAll();
+
+    @Transactional(readOnly = true)
+    public Slice<AnimeResponse> listAllWithoutCount(Pageable pageable) {
+        return animeRepository.findAllBy(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<AnimeResponse> listAllAfter(Long lastId, int size) {
+        return animeRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, size));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AnimeResponse> listAllNonPageable() {
+        return animeRepository.findAllProjectedBy();
     }
 
-    public List<Anime> findByName(String name) {
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<AnimeResponse> consumer) {
+        try (Stream<AnimeResponse> animes = animeRepository.streamAll()) {
+            animes.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<AnimeResponse> findByName(String name) {
         return animeRepository.findByName(name);
     }
 
-    public Anime findByIdOrThrowBadRequestException(Long id) {
-        return animeRepository.findById(id)
+    @Transactional(readOnly = true)
+    public Page<AnimeResponse> search(String name, NameSearchMode mode, boolean ignoreCase, Pageable pageable) {
+        return switch (mode) {
+            case EXACT -> ignoreCase
+                    ? animeRepository.findByNameIgnoreCase(name, pageable)
+                    : animeRepository.findByName(name, pageable);
+            case PREFIX -> ignoreCase
+                    ? animeRepository.findByNameStartingWithIgnoreCase(name, pageable)
+                    : animeRepository.findByNameStartingWith(name, pageable);
+            case CONTAINS -> ignoreCase
+                    ? animeRepository.findByNameContainingIgnoreCase(name, pageable)
+                    : animeRepository.findByNameContaining(name, pageable);
+        };
+    }
+
+    public List<AnimeResponse> autocomplete(String prefix, int limit) {
+        return animeNameIndex.findByPrefix(prefix, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildNameIndex() {
+        streamAll(animeNameIndex::put);
+        log.info("Anime name index loaded with {} entries", animeNameIndex.size());
+    }
+
+    @Transactional(readOnly = true)
+    public AnimeResponse findByIdOrThrowBadRequestException(Long id) {
+        return ReadWriteRoutingDataSource.onPrimary(() -> animeRepository.findProjectedById(id))
                 .orElseThrow(() -> new BadRequestException("Anime not Found"));
     }
 
+    /**
+     * Answers from the id cache first, only the misses are read, with one IN query per
+     * {@link AnimeLookupProperties#getChunkSize()} ids, read from the primary and cached for the next lookups. Repeated
+     * ids are answered once.
+     */
+    @Transactional(readOnly = true)
+    public AnimeLookupResponse findAllById(List<Long> ids) {
+        Set<Long> distinctIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinctIds.size() > animeLookupProperties.getMaxIds()) {
+            throw new BadRequestException("At most " + animeLookupProperties.getMaxIds() + " ids can be looked up at once");
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.ANIMES_BY_ID);
+        Map<Long, AnimeResponse> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Cache.ValueWrapper cached = cache == null ? null : cache.get(id);
+            if (cached == null) {
+                misses.add(id);
+            } else if (cached.get() instanceof AnimeResponse anime) {
+                found.put(id, anime);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += animeLookupProperties.getChunkSize()) {
+            List<Long> chunk = misses.subList(from, Math.min(from + animeLookupProperties.getChunkSize(), misses.size()));
+            for (AnimeResponse anime : ReadWriteRoutingDataSource.onPrimary(() -> animeRepository.findByIdIn(chunk))) {
+                found.put(anime.getId(), anime);
+                if (cache != null) {
+                    cache.put(anime.getId(), anime);
+                }
+            }
+            if (cache != null && animeCacheProperties.isCacheMissingIds()) {
+                chunk.stream().filter(id -> !found.containsKey(id)).forEach(id -> cache.put(id, null));
+            }
+        }
+        List<AnimeResponse> animes = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            AnimeResponse anime = found.get(id);
+            if (anime == null) {
+                missing.add(id);
+            } else {
+                animes.add(anime);
+            }
+        }
+        return AnimeLookupResponse.builder().animes(animes).missing(missing).build();
+    }
+
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_BY_ID, key = "#result.id")
     public Anime save(AnimePostRequestBody animePostRequestBody) {
-        return animeRepository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        Anime savedAnime = animeRepository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        AnimeResponse indexed = AnimeResponse.of(savedAnime);
+        afterCommit(() -> animeNameIndex.put(indexed));
+        animeChangeTracker.markChanged();
+        cacheInvalidationOutbox.record(CacheInvalidation.ANIME, List.of(savedAnime.getId()));
+        animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, savedAnime.getId(), savedAnime.getName());
+        return savedAnime;
+    }
+
+    public List<AnimeBatchItemResult> saveAll(Iterator<AnimePostRequestBody> animePostRequestBodies) {
+        List<AnimeBatchItemResult> results = new ArrayList<>();
+        List<AnimeBatchItemResult> pending = new ArrayList<>(animeBatchProperties.getChunkSize());
+        int index = 0;
+        while (animePostRequestBodies.hasNext()) {
+            AnimePostRequestBody animePostRequestBody = animePostRequestBodies.next();
+            AnimeBatchItemResult result = AnimeBatchItemResult.builder()
+                    .index(index++)
+                    .name(animePostRequestBody == null ? null : animePostRequestBody.getName())
+                    .build();
+            results.add(result);
+
+            String violations = validate(animePostRequestBody);
+            if (violations != null) {
+                result.setMessage(violations);
+                continue;
+            }
+            pending.add(result);
+            if (pending.size() >= animeBatchProperties.getChunkSize()) {
+                insertChunk(pending);
+            }
+        }
+        insertChunk(pending);
+        return results;
+    }
+
+    private String validate(AnimePostRequestBody animePostRequestBody) {
+        if (animePostRequestBody == null) {
+            return "The anime cannot be null";
+        }
+        Set<ConstraintViolation<AnimePostRequestBody>> violations = validator.validate(animePostRequestBody);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(", "));
+    }
+
+    private void insertChunk(List<AnimeBatchItemResult> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Anime> animes = pending.stream()
+                .map(result -> Anime.builder().name(result.getName()).build())
+                .toList();
+        try {
+            List<Anime> savedAnimes = insertAll(animes);
+            for (int i = 0; i < savedAnimes.size(); i++) {
+                pending.get(i).setId(savedAnimes.get(i).getId());
+                pending.get(i).setCreated(true);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} animes was not inserted", pending.size(), e);
+            pending.forEach(result -> result.setMessage(e.getMostSpecificCause().getMessage()));
+        }
+        pending.clear();
+    }
+
+    /**
+     * Inserts already validated animes in one batched statement and transaction, shared by the batch endpoints and
+     * {@link AnimeIngestionQueue}.
+     */
+    public List<Anime> insertAll(List<Anime> animes) {
+        List<Anime> savedAnimes = animeRepository.insertAll(animes);
+        Cache cache = cacheManager.getCache(CacheConfig.ANIMES_BY_ID);
+        for (Anime savedAnime : savedAnimes) {
+            afterCommit(() -> animeNameIndex.put(AnimeResponse.of(savedAnime)));
+            if (cache != null) {
+                cache.evict(savedAnime.getId());
+            }
+            animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, savedAnime.getId(), savedAnime.getName());
+        }
+        animeChangeTracker.markChanged();
+        return savedAnimes;
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_BY_ID, key = "#id")
     public void delete(Long id) {
-        animeRepository.delete(findByIdOrThrowBadRequestException(id));
+        animeRepository.delete(animeRepository.findById(id)
+                .orElseThrow(() -> new BadRequestException("Anime not Found")));
+        afterCommit(() -> animeNameIndex.remove(id));
+        animeChangeTracker.markChanged();
+        cacheInvalidationOutbox.record(CacheInvalidation.ANIME, List.of(id));
+        animeChangeFeed.publish(AnimeChangeEvent.Type.DELETED, id, null);
+    }
+
+    /**
+     * One UPDATE statement, guarded by the version when {@code expectedVersion} is given; the anime is only read
+     * again to tell a missing anime from a concurrent change when nothing was updated, or to learn the version it got
+     * when nothing was expected, in the same transaction.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_BY_ID, key = "#animePutRequestBody.id")
+    public void replace(AnimePutRequestBody animePutRequestBody, Long expectedVersion) {
+        updateName(animePutRequestBody.getId(), animePutRequestBody.getName(), expectedVersion);
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_BY_ID, key = "#id")
+    public void patch(Long id, AnimePatchRequestBody animePatchRequestBody, Long expectedVersion) {
+        if (animePatchRequestBody.getName() == null) {
+            AnimeResponse current = findByIdOrThrowBadRequestException(id);
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw staleVersion(expectedVersion);
+            }
+            return;
+        }
+        updateName(id, animePatchRequestBody.getName(), expectedVersion);
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeMissingVersions() {
+        int initialized = animeRepository.initializeMissingVersions();
+        if (initialized > 0) {
+            log.info("Initialized the version of {} animes", initialized);
+        }
+    }
+
+    private void updateName(Long id, String name, Long expectedVersion) {
+        if (!StringUtils.hasText(name)) {
+            throw new BadRequestException("The name connot be empty");
+        }
+        Instant updatedAt = Anime.now();
+        int updated = expectedVersion == null
+                ? animeRepository.updateName(id, name, updatedAt)
+                : animeRepository.updateNameIfVersion(id, name, expectedVersion, updatedAt);
+        if (updated == 0) {
+            if (!animeRepository.existsById(id)) {
+                throw new BadRequestException("Anime not Found");
+            }
+            throw staleVersion(expectedVersion);
+        }
+        AnimeResponse indexed = expectedVersion == null
+                ? animeRepository.findCurrentById(id).orElseThrow(() -> new BadRequestException("Anime not Found"))
+                : new AnimeResponse(id, name, expectedVersion + 1, updatedAt);
+        afterCommit(() -> animeNameIndex.put(indexed));
+        animeChangeTracker.markChanged();
+        cacheInvalidationOutbox.record(CacheInvalidation.ANIME, List.of(id));
+        animeChangeFeed.publish(AnimeChangeEvent.Type.UPDATED, id, name);
+    }
+
+    /**
+     * The name index is shared by every request, it only sees a change once the change is committed, as
+     * {@link AnimeChangeTracker#markChanged()} does.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
-    public void replace(AnimePutRequestBody animePutRequestBody) {
-        findByIdOrThrowBadRequestException(animePutRequestBody.getId());
-        Anime anime = AnimeMapper.INSTANCE.toAnime(animePutRequestBody);
-        animeRepository.save(anime);
+    private static PreconditionFailedException staleVersion(Long expectedVersion) {
+        return new PreconditionFailedException("The anime is no longer at version " + expectedVersion + ", fetch it again before updating");
     }
 }
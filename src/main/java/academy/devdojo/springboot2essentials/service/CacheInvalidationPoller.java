@@ -0,0 +1,284 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.CacheConfig;
+import academy.devdojo.springboot2essentials.config.CacheInvalidationProperties;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
+import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import academy.devdojo.springboot2essentials.repository.CacheInvalidationOutbox;
+import academy.devdojo.springboot2essentials.wrapper.AnimeChangeEvent;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails the cache_invalidation table and evicts what other instances changed from the anime and user caches,
+ * the name index and the collection ETag, which also drops the cached list responses.
+ * <p>
+ * The table is read from a high-water mark, the highest id seen. Ids are taken at insert and become visible at
+ * commit, so an id below the mark can still show up: skipped ids are kept as gaps and read again until they
+ * appear or are older than the gap timeout. When the table cannot be read for longer than the max staleness,
+ * the caches are dropped instead.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationPoller implements AutoCloseable {
+    private static final Duration PRUNE_INTERVAL = Duration.ofMinutes(1);
+    /**
+     * Ids skipped in one jump beyond this are not waited for, a sequence that jumps that far was not one insert each.
+     */
+    private static final int MAXIMUM_GAP = 1_000;
+
+    private final CacheInvalidationOutbox outbox;
+    private final CacheInvalidationProperties properties;
+    private final AnimeRepository animeRepository;
+    private final AnimeNameIndex animeNameIndex;
+    private final AnimeChangeTracker animeChangeTracker;
+    private final AnimeChangeFeed animeChangeFeed;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> lag = new ConcurrentHashMap<>();
+    private final Map<String, Counter> applied = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Skipped ids and the nanoTime they were first missed at, only touched under the lock of {@link #poll()}.
+     */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    private volatile long highWaterMark = -1;
+    private volatile long lastPollNanos = System.nanoTime();
+    private volatile boolean flushed;
+
+    public CacheInvalidationPoller(CacheInvalidationOutbox outbox, CacheInvalidationProperties properties,
+                                   AnimeRepository animeRepository, AnimeNameIndex animeNameIndex,
+                                   AnimeChangeTracker animeChangeTracker, AnimeChangeFeed animeChangeFeed,
+                                   CacheManager cacheManager,
+                                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.properties = properties;
+        this.animeRepository = animeRepository;
+        this.animeNameIndex = animeNameIndex;
+        this.animeChangeTracker = animeChangeTracker;
+        this.animeChangeFeed = animeChangeFeed;
+        this.cacheManager = cacheManager;
+        // names are read back in a read-write transaction so they come from the primary even when routing is on
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("anime.cache.invalidation.staleness", this, poller -> poller.staleness().toMillis() / 1000.0)
+                .description("Time since the changes of other instances were last read, the most the local caches can be behind")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("anime.cache.invalidation.gaps", this, poller -> poller.gapCount())
+                .description("Skipped ids still waited for")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs before the name index is loaded, so every change committed after the load is read.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        highWaterMark = outbox.maxId();
+        lastPollNanos = System.nanoTime();
+        long interval = properties.getPollInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::prune, PRUNE_INTERVAL.toMillis(), PRUNE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads and applies every change committed since the last poll.
+     */
+    public synchronized void poll() {
+        if (highWaterMark < 0) {
+            highWaterMark = outbox.maxId();
+        }
+        long cursor = gaps.isEmpty() ? highWaterMark : Math.min(highWaterMark, gaps.keySet().iterator().next() - 1);
+        List<CacheInvalidation> changes;
+        do {
+            changes = outbox.findAfter(cursor, properties.getBatchSize());
+            List<CacheInvalidation> remoteChanges = new ArrayList<>();
+            for (CacheInvalidation change : changes) {
+                cursor = change.getId();
+                if (!advance(change.getId())) {
+                    continue;
+                }
+                if (!outbox.getOrigin().equals(change.getOrigin())) {
+                    remoteChanges.add(change);
+                }
+            }
+            apply(remoteChanges);
+        } while (changes.size() == properties.getBatchSize());
+        expireGaps();
+        lastPollNanos = System.nanoTime();
+        flushed = false;
+    }
+
+    public Duration staleness() {
+        return Duration.ofNanos(System.nanoTime() - lastPollNanos);
+    }
+
+    public synchronized int gapCount() {
+        return gaps.size();
+    }
+
+    /**
+     * Moves the high-water mark past the id, remembering the ids it skipped.
+     *
+     * @return false when the change was already applied
+     */
+    private boolean advance(long id) {
+        if (id <= highWaterMark) {
+            return gaps.remove(id) != null;
+        }
+        long now = System.nanoTime();
+        for (long skipped = Math.max(highWaterMark + 1, id - MAXIMUM_GAP); skipped < id; skipped++) {
+            gaps.put(skipped, now);
+        }
+        highWaterMark = id;
+        return true;
+    }
+
+    private void expireGaps() {
+        long timeout = properties.getGapTimeout().toNanos();
+        long now = System.nanoTime();
+        gaps.values().removeIf(missedAt -> now - missedAt > timeout);
+    }
+
+    private void apply(List<CacheInvalidation> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Set<Long> animeIds = new HashSet<>();
+        Cache users = cacheManager.getCache(CacheConfig.USERS_BY_USERNAME);
+        for (CacheInvalidation change : changes) {
+            if (CacheInvalidation.ANIME.equals(change.getEntity())) {
+                try {
+                    animeIds.add(Long.valueOf(change.getEntityKey()));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring cache invalidation {}, {} is not an anime id", change.getId(), change.getEntityKey());
+                }
+            } else if (CacheInvalidation.USER.equals(change.getEntity()) && users != null) {
+                users.evict(change.getEntityKey());
+            }
+            lag(change.getEntity()).record(Duration.between(change.getChangedAt(), now));
+            applied(change.getEntity()).increment();
+        }
+        if (!animeIds.isEmpty()) {
+            Cache animes = cacheManager.getCache(CacheConfig.ANIMES_BY_ID);
+            if (animes != null) {
+                animeIds.forEach(animes::evict);
+            }
+            reindex(animeIds);
+            animeChangeTracker.markChanged();
+        }
+    }
+
+    private Timer lag(String entity) {
+        return lag.computeIfAbsent(entity, ignored -> Timer.builder("anime.cache.invalidation.lag")
+                .description("Time from a change on another instance to its eviction here")
+                .tag("entity", entity)
+                .register(meterRegistry));
+    }
+
+    private Counter applied(String entity) {
+        return applied.computeIfAbsent(entity, ignored -> Counter.builder("anime.cache.invalidation.applied")
+                .description("Changes of other instances evicted from the local caches")
+                .tag("entity", entity)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Also republishes the changes to the local /animes/changes subscribers; an anime still at version 0 was
+     * created, every update bumps the version.
+     */
+    private void reindex(Set<Long> animeIds) {
+        List<AnimeResponse> animes = transactionTemplate.execute(status -> animeRepository.findByIdIn(animeIds));
+        Set<Long> deleted = new HashSet<>(animeIds);
+        for (AnimeResponse anime : animes == null ? List.<AnimeResponse>of() : animes) {
+            animeNameIndex.put(anime);
+            deleted.remove(anime.getId());
+            AnimeChangeEvent.Type type = Long.valueOf(0).equals(anime.getVersion()) ? AnimeChangeEvent.Type.CREATED : AnimeChangeEvent.Type.UPDATED;
+            animeChangeFeed.publish(type, anime.getId(), anime.getName());
+        }
+        for (Long id : deleted) {
+            animeNameIndex.remove(id);
+            animeChangeFeed.publish(AnimeChangeEvent.Type.DELETED, id, null);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the changes of other instances: {}", e.getMessage());
+            if (!flushed && staleness().compareTo(properties.getMaxStaleness()) > 0) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Drops everything other instances could have changed; the name index has no source but the database, it is
+     * left as it is.
+     */
+    private void flush() {
+        log.warn("Changes of other instances not read for {}, dropping the local caches", staleness());
+        for (String cacheName : List.of(CacheConfig.ANIMES_BY_ID, CacheConfig.USERS_BY_USERNAME)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        animeChangeTracker.markChanged();
+        flushed = true;
+    }
+
+    private void prune() {
+        try {
+            int deleted = outbox.deleteOlderThan(Instant.now().minus(properties.getRetention()));
+            if (deleted > 0) {
+                log.debug("Deleted {} cache invalidations", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not delete old cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeAsyncProperties;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many /animes/async reads reach the database at once. Callers over the limit wait up to the acquire
+ * timeout and are then rejected, instead of piling up on the connection pool.
+ * <p>
+ * Only {@link AnimeAsyncService} goes through it: the other endpoints are already bounded by the Tomcat threads
+ * serving them, and wrapping repository calls would not bound connections anyway, a transaction keeps its
+ * connection between calls.
+ */
+@Component
+@ConditionalOnProperty(prefix = "anime.async", name = "enabled", havingValue = "true")
+public class DatabaseConcurrencyLimiter {
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public DatabaseConcurrencyLimiter(AnimeAsyncProperties animeAsyncProperties, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(animeAsyncProperties.getDatabasePermits(), true);
+        this.acquireTimeoutNanos = animeAsyncProperties.getDatabaseAcquireTimeout().toNanos();
+        Gauge.builder("anime.database.limiter.available", permits, Semaphore::availablePermits)
+                .description("Database permits not in use")
+                .register(meterRegistry);
+        Gauge.builder("anime.database.limiter.waiting", permits, Semaphore::getQueueLength)
+                .description("Callers waiting for a database permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("anime.database.limiter.rejected")
+                .description("Callers that timed out waiting for a database permit")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new ServiceUnavailableException("Too many concurrent database requests, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the database");
+        }
+        try {
+            return supplier.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
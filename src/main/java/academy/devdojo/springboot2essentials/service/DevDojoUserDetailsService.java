@@ -1,11 +1,15 @@
 package academy.devdojo.springboot2essentials.service;
 
+import academy.devdojo.springboot2essentials.config.CacheConfig;
+import academy.devdojo.springboot2essentials.config.ReadWriteRoutingDataSource;
 import academy.devdojo.springboot2essentials.repository.DevDojoUserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,8 +18,11 @@ import java.util.Optional;
 public class DevDojoUserDetailsService implements UserDetailsService {
     private final DevDojoUserRepository devDojoUserRepository;
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME)
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) {
-        return Optional.ofNullable(devDojoUserRepository.findByUsername(username))
+        // cached, so read from the primary
+        return Optional.ofNullable(ReadWriteRoutingDataSource.onPrimary(() -> devDojoUserRepository.findByUsername(username)))
                 .orElseThrow(() -> new UsernameNotFoundException("DevDojo User not found"));
     }
 }
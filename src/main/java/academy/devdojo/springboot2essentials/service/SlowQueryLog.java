@@ -0,0 +1,248 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.SlowQueryDataSource;
+import academy.devdojo.springboot2essentials.config.SlowQueryProperties;
+import academy.devdojo.springboot2essentials.wrapper.SlowQueryResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Statements that went over the slow query threshold, grouped by their normalized SQL, with the slowest execution
+ * of each one and, for SELECTs, the plan the database reported for it. Fed by
+ * {@link SlowQueryDataSource}.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+    private static final String APPLICATION_PACKAGE = "academy.devdojo.springboot2essentials.";
+    private static final String SERVICE_PACKAGE = APPLICATION_PACKAGE + "service.";
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final SlowQueryProperties properties;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final LongAdder untracked = new LongAdder();
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Called on the thread that ran the statement, so the caller can still be read from the stack.
+     */
+    public void record(DataSource dataSource, String sql, List<Object> binds, long elapsedNanos, long rows) {
+        String caller = caller();
+        List<String> printableBinds = binds.stream().map(this::printable).toList();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        log.warn("Slow query {}ms rows={} caller={} sql=[{}] binds={}", elapsedMillis, rows, caller, sql, printableBinds);
+
+        String normalized = normalize(sql);
+        StatementStats stats = statements.get(normalized);
+        if (stats == null) {
+            if (statements.size() >= properties.getMaxStatements()) {
+                untracked.increment();
+                return;
+            }
+            stats = statements.computeIfAbsent(normalized, StatementStats::new);
+        }
+        stats.record(new SlowQueryResponse.Execution(elapsedMillis, rows, caller, printableBinds, Instant.now()), elapsedNanos);
+        if (properties.isExplain() && isSelect(sql) && stats.explainRequested.compareAndSet(false, true)) {
+            StatementStats explained = stats;
+            explainExecutor.execute(() -> explained.plan = explain(dataSource, sql, binds));
+        }
+    }
+
+    public List<SlowQueryResponse> top(int limit, String orderBy) {
+        Comparator<StatementStats> order = switch (Optional.ofNullable(orderBy).orElse("total").toLowerCase(Locale.ROOT)) {
+            case "max" -> Comparator.comparingLong(stats -> stats.maxNanos.get());
+            case "count" -> Comparator.comparingLong(stats -> stats.count.sum());
+            default -> Comparator.comparingLong(stats -> stats.totalNanos.sum());
+        };
+        return statements.values().stream()
+                .sorted(order.reversed())
+                .limit(Math.max(0, limit))
+                .map(StatementStats::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Slow statements that were logged but not kept because {@code maxStatements} distinct statements were
+     * already tracked.
+     */
+    public long untracked() {
+        return untracked.sum();
+    }
+
+    public void reset() {
+        statements.clear();
+        untracked.reset();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    /**
+     * Literals become {@code ?} and IN lists a single {@code (?...)}, so the same statement with different values,
+     * or lists of different lengths, is counted as one.
+     */
+    public static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading();
+        return trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    /**
+     * The innermost service method on the stack, or the innermost application frame when the statement did not
+     * come from a service, e.g. the batch repository or a test.
+     */
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> {
+            String fallback = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (!className.startsWith(APPLICATION_PACKAGE) || className.contains("$$")
+                        || isOrIsNestedIn(className, SlowQueryLog.class.getName())
+                        || isOrIsNestedIn(className, SlowQueryDataSource.class.getName())) {
+                    continue;
+                }
+                String method = className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                if (className.startsWith(SERVICE_PACKAGE)) {
+                    return method;
+                }
+                if (fallback == null) {
+                    fallback = method;
+                }
+            }
+            return fallback == null ? "unknown" : fallback;
+        });
+    }
+
+    private static boolean isOrIsNestedIn(String className, String outerClassName) {
+        return className.equals(outerClassName) || className.startsWith(outerClassName + "$");
+    }
+
+    private String printable(Object bind) {
+        if (bind instanceof InputStream || bind instanceof Reader || bind instanceof Blob || bind instanceof Clob || bind instanceof byte[]) {
+            return "<" + bind.getClass().getSimpleName() + ">";
+        }
+        String value = String.valueOf(bind);
+        return value.length() > properties.getMaxBindLength() ? value.substring(0, properties.getMaxBindLength()) + "..." : value;
+    }
+
+    /**
+     * Runs on the explain thread with a connection taken straight from the target data source, so the EXPLAIN
+     * itself is never recorded as a slow query.
+     */
+    private static String explain(DataSource dataSource, String sql, List<Object> binds) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < binds.size(); i++) {
+                if (binds.get(i) == null) {
+                    statement.setNull(i + 1, Types.NULL);
+                } else {
+                    statement.setObject(i + 1, binds.get(i));
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    if (plan.length() > 0) {
+                        plan.append('\n');
+                    }
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        if (metaData.getColumnCount() > 1) {
+                            plan.append(column > 1 ? ", " : "").append(metaData.getColumnLabel(column)).append('=');
+                        }
+                        plan.append(resultSet.getString(column));
+                    }
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Could not explain [{}]", sql, e);
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private static class StatementStats {
+        private final String statement;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicBoolean explainRequested = new AtomicBoolean();
+        private volatile SlowQueryResponse.Execution slowest;
+        private volatile String plan;
+
+        StatementStats(String statement) {
+            this.statement = statement;
+        }
+
+        void record(SlowQueryResponse.Execution execution, long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            if (maxNanos.getAndAccumulate(elapsedNanos, Math::max) < elapsedNanos) {
+                slowest = execution;
+            }
+        }
+
+        SlowQueryResponse toResponse() {
+            long executions = count.sum();
+            long total = totalNanos.sum();
+            return SlowQueryResponse.builder()
+                    .statement(statement)
+                    .count(executions)
+                    .totalMillis(TimeUnit.NANOSECONDS.toMillis(total))
+                    .meanMillis(executions == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(total / executions))
+                    .maxMillis(TimeUnit.NANOSECONDS.toMillis(maxNanos.get()))
+                    .slowest(slowest)
+                    .plan(plan)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.TokenProperties;
+import academy.devdojo.springboot2essentials.domain.DevDojoAuthorities;
+import academy.devdojo.springboot2essentials.wrapper.TokenResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Issues and verifies HS256 signed, JWT compatible bearer tokens carrying the username and authorities,
+ * so authenticated requests need neither a session nor a database lookup.
+ */
+@Service
+@Slf4j
+public class TokenService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String TOKEN_TYPE = "Bearer";
+    private static final byte[] HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final TokenProperties tokenProperties;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenService(TokenProperties tokenProperties, ObjectMapper objectMapper) {
+        this(tokenProperties, objectMapper, Clock.systemUTC());
+    }
+
+    TokenService(TokenProperties tokenProperties, ObjectMapper objectMapper, Clock clock) {
+        this.tokenProperties = tokenProperties;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        SecretKeySpec secretKey = new SecretKeySpec(resolveSecret(tokenProperties.getSecret()), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(secretKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    public TokenResponse issue(Authentication authentication) {
+        long issuedAt = clock.instant().getEpochSecond();
+        long expiresIn = tokenProperties.getTtl().toSeconds();
+        TokenClaims claims = TokenClaims.builder()
+                .sub(authentication.getName())
+                .iss(tokenProperties.getIssuer())
+                .iat(issuedAt)
+                .exp(issuedAt + expiresIn)
+                .roles(AuthorityUtils.authorityListToSet(authentication.getAuthorities()).stream().sorted().toList())
+                .build();
+        try {
+            byte[] payload = Base64.getUrlEncoder().withoutPadding().encode(objectMapper.writeValueAsBytes(claims));
+            String signingInput = new String(HEADER, StandardCharsets.US_ASCII) + "." + new String(payload, StandardCharsets.US_ASCII);
+            return TokenResponse.builder()
+                    .token(signingInput + "." + sign(signingInput))
+                    .tokenType(TOKEN_TYPE)
+                    .expiresIn(expiresIn)
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write token claims", e);
+        }
+    }
+
+    public Optional<Authentication> verify(String token) {
+        int payloadStart = token.indexOf('.');
+        int signatureStart = token.lastIndexOf('.');
+        if (payloadStart < 0 || signatureStart <= payloadStart) {
+            return Optional.empty();
+        }
+        String signingInput = token.substring(0, signatureStart);
+        byte[] expectedSignature = sign(signingInput).getBytes(StandardCharsets.US_ASCII);
+        byte[] signature = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expectedSignature, signature)) {
+            return Optional.empty();
+        }
+        try {
+            TokenClaims claims = objectMapper.readValue(
+                    Base64.getUrlDecoder().decode(token.substring(payloadStart + 1, signatureStart)), TokenClaims.class);
+            if (claims.getExp() <= clock.instant().getEpochSecond() || !tokenProperties.getIssuer().equals(claims.getIss())) {
+                return Optional.empty();
+            }
+            Set<GrantedAuthority> authorities = DevDojoAuthorities.of(claims.getRoles());
+            UserDetails principal = User.withUsername(claims.getSub())
+                    .password("")
+                    .authorities(authorities)
+                    .build();
+            return Optional.of(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+        } catch (IOException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String sign(String signingInput) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] resolveSecret(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return Base64.getDecoder().decode(secret);
+        }
+        log.warn("devdojo.security.token.secret is not set, tokens issued by this instance will not be accepted by other instances");
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class TokenClaims {
+        private String sub;
+        private String iss;
+        private long iat;
+        private long exp;
+        private List<String> roles;
+    }
+}
@@ -7,7 +7,10 @@ import java.time.format.DateTimeFormatter;
 
 @Component
 public class DateUtil {
+    // DateTimeFormatter is immutable and thread safe, parsing the pattern once is enough
+    private static final DateTimeFormatter DATABASE_STYLE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     public String fomartLocalDateTimeToDatabaseStyle(LocalDateTime localDateTime) {
-        return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").format(localDateTime);
+        return DATABASE_STYLE.format(localDateTime);
     }
 }
@@ -0,0 +1,18 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeBatchItemResult {
+    private int index;
+    private boolean created;
+    private Long id;
+    private String name;
+    private String message;
+}
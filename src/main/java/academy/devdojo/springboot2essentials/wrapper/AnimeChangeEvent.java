@@ -0,0 +1,21 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * The data of an /animes/changes event, the event name is the type in lower case.
+ */
+@Value
+public class AnimeChangeEvent {
+    Type type;
+    Long id;
+    /**
+     * Null for deletions.
+     */
+    String name;
+    Instant changedAt;
+
+    public enum Type {CREATED, UPDATED, DELETED}
+}
@@ -0,0 +1,26 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where an anime sent to POST /animes with Prefer: respond-async is, read from /animes/ingestion/{trackingId}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeIngestionStatus {
+    private String trackingId;
+    private Status status;
+    /**
+     * The id of the anime once it is created.
+     */
+    private Long id;
+    private String name;
+    private String message;
+
+    public enum Status {PENDING, CREATED, FAILED}
+}
@@ -0,0 +1,20 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The animes found by a multi-get, in the order their ids were asked for, and the ids that were not found.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeLookupResponse {
+    private List<AnimeResponse> animes;
+    private List<Long> missing;
+}
@@ -0,0 +1,23 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * What the read endpoints answer with, selected straight into this class by {@code AnimeRepository} so a read
+ * neither registers entities in the persistence context nor keeps their dirty checking snapshots.
+ * Written by Jackson exactly like {@link Anime}.
+ */
+@Value
+public class AnimeResponse {
+    Long id;
+    String name;
+    Long version;
+    Instant updatedAt;
+
+    public static AnimeResponse of(Anime anime) {
+        return new AnimeResponse(anime.getId(), anime.getName(), anime.getVersion(), anime.getUpdatedAt());
+    }
+}
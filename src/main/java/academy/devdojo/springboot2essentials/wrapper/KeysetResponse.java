@@ -0,0 +1,59 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import academy.devdojo.springboot2essentials.execption.BadRequestException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+public class KeysetResponse<T> {
+    private static final String CURSOR_PREFIX = "id:";
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String next;
+
+    @JsonCreator
+    public KeysetResponse(@JsonProperty("content") List<T> content,
+                          @JsonProperty("size") int size,
+                          @JsonProperty("hasNext") boolean hasNext,
+                          @JsonProperty("next") String next) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.next = next;
+    }
+
+    public static <T> KeysetResponse<T> of(Slice<T> slice, Function<T, Long> idExtractor) {
+        List<T> content = slice.getContent();
+        String next = slice.hasNext() ? encodeCursor(idExtractor.apply(content.get(content.size() - 1))) : null;
+        return new KeysetResponse<>(content, slice.getSize(), slice.hasNext(), next);
+    }
+
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Compact form of a {@link Page}, the same fields {@link PageableResponse} reads without the pageable and sort
+ * objects that Jackson writes for {@link org.springframework.data.domain.PageImpl}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageResponse<T> {
+    private List<T> content;
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private int numberOfElements;
+    private boolean first;
+    private boolean last;
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+                page.getTotalPages(), page.getNumberOfElements(), page.isFirst(), page.isLast());
+    }
+}
@@ -0,0 +1,34 @@
+package academy.devdojo.springboot2essentials.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQueryResponse {
+    private String statement;
+    private long count;
+    private long totalMillis;
+    private long meanMillis;
+    private long maxMillis;
+    private Execution slowest;
+    private String plan;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Execution {
+        private long elapsedMillis;
+        private long rows;
+        private String caller;
+        private List<String> binds;
+        private Instant at;
+    }
+}
@@ -0,0 +1,104 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.Springboot2EssentialsApplication;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.DevDojoUser;
+import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import academy.devdojo.springboot2essentials.repository.DevDojoUserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Many concurrent clients listing animes over real HTTP, against the blocking /animes endpoint and the
+ * /animes/async one. Tomcat is kept to a handful of threads so the difference comes from releasing the servlet
+ * thread while the query runs, not from a bigger pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class AnimeAsyncLoadBenchmark {
+    @Param({"/animes", "/animes/async"})
+    private String path;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=8",
+                        "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=10",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--anime.async.enabled=true",
+                        "--anime.async.max-pool-size=64",
+                        "--anime.async.database-permits=10",
+                        "--logging.level.root=warn");
+        context.getBean(DevDojoUserRepository.class).save(DevDojoUser.builder()
+                .name("Devdojo Academy")
+                .username("devdojo")
+                .password("{bcrypt}$2a$10$edC3nxbf8mDBKV2JKKNFx.cDL8LLf/Twg7tMIbZXwOSr8NNxAbom2")
+                .authorities("ROLE_USER")
+                .build());
+        List<Anime> animes = IntStream.range(0, 2_000)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .collect(Collectors.toList());
+        context.getBean(AnimeRepository.class).insertAll(animes);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path + "?page=0&size=200&sort=name,desc"))
+                .header("Authorization", "Basic " + Base64.getEncoder().encodeToString("devdojo:academy".getBytes(StandardCharsets.UTF_8)))
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int list() throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200 && response.statusCode() != 503) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,90 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.Springboot2EssentialsApplication;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.DevDojoUser;
+import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import academy.devdojo.springboot2essentials.repository.DevDojoUserRepository;
+import academy.devdojo.springboot2essentials.util.AnimeCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.Filter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Full GET /animes/{id} through the security filter chain and Spring MVC against an in-memory H2 database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnimeEndToEndBenchmark {
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private Long animeId;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+        context.getBean(DevDojoUserRepository.class).save(DevDojoUser.builder()
+                .name("Devdojo Academy")
+                .username("devdojo")
+                .password("{bcrypt}$2a$10$edC3nxbf8mDBKV2JKKNFx.cDL8LLf/Twg7tMIbZXwOSr8NNxAbom2")
+                .authorities("ROLE_USER")
+                .build());
+        Anime anime = context.getBean(AnimeRepository.class).save(AnimeCreator.createAnimeToBeSaved());
+        animeId = anime.getId();
+        authorization = "Basic " + Base64.getEncoder().encodeToString("devdojo:academy".getBytes(StandardCharsets.UTF_8));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String findById() throws Exception {
+        MvcResult result = mockMvc.perform(get("/animes/{id}", animeId)
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn();
+        if (result.getResponse().getStatus() != 200) {
+            throw new IllegalStateException("Unexpected status " + result.getResponse().getStatus());
+        }
+        return result.getResponse().getContentAsString();
+    }
+}
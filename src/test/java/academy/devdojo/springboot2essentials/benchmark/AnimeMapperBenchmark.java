@@ -0,0 +1,40 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.mapper.AnimeMapper;
+import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
+import academy.devdojo.springboot2essentials.util.AnimePutRequestBodyCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnimeMapperBenchmark {
+    private final AnimePostRequestBody animePostRequestBody = AnimePostRequestBodyCreator.createAnimePostRequestBody();
+    private final AnimePutRequestBody animePutRequestBody = AnimePutRequestBodyCreator.createAnimePutRequestBody();
+
+    @Benchmark
+    public Anime toAnimeFromPostRequestBody() {
+        return AnimeMapper.INSTANCE.toAnime(animePostRequestBody);
+    }
+
+    @Benchmark
+    public Anime toAnimeFromPutRequestBody() {
+        return AnimeMapper.INSTANCE.toAnime(animePutRequestBody);
+    }
+}
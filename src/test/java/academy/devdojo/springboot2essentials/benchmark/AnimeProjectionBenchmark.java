@@ -0,0 +1,94 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.Springboot2EssentialsApplication;
+import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of animes read as entities, the way the list endpoints used to, against the {@code AnimeResponse}
+ * projection they use now, both in the read-only transaction AnimeService opens and written to JSON.
+ * Run it with {@code -prof gc} for the bytes allocated per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnimeProjectionBenchmark {
+    @Param({"entity", "projection"})
+    private String read;
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private AnimeRepository animeRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate transactionTemplate;
+    private Pageable page;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--anime.slow-query.enabled=false",
+                "--logging.level.root=warn");
+        animeRepository = context.getBean(AnimeRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        List<Object[]> names = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            names.add(new Object[]{"Anime " + i, 0L});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("insert into anime (name, version, updated_at) values (?, ?, current_timestamp)", names);
+        page = PageRequest.of(1, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] listPage() {
+        return transactionTemplate.execute(status -> {
+            Page<?> animes = "entity".equals(read)
+                    ? animeRepository.findAll(page)
+                    : animeRepository.findAllProjectedBy(page);
+            try {
+                return objectMapper.writeValueAsBytes(animes.getContent());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
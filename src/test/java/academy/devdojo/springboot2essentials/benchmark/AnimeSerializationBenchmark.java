@@ -0,0 +1,74 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.util.AnimeCreator;
+import academy.devdojo.springboot2essentials.wrapper.PageableResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Jackson work done for the anime responses, using an ObjectMapper configured like the one Spring MVC uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnimeSerializationBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private final TypeReference<PageableResponse<Anime>> pageableResponseType = new TypeReference<>() {
+    };
+
+    private ObjectMapper objectMapper;
+    private Anime anime;
+    private Page<Anime> animePage;
+    private byte[] animePageJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        anime = AnimeCreator.createValidAnime();
+        List<Anime> animes = LongStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(id -> new Anime(id, "Hajime no Ippo " + id))
+                .toList();
+        animePage = new PageImpl<>(animes, PageRequest.of(0, PAGE_SIZE), 1_000);
+        animePageJson = objectMapper.writeValueAsBytes(animePage);
+    }
+
+    @Benchmark
+    public byte[] serializeAnime() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(anime);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(animePage);
+    }
+
+    @Benchmark
+    public PageableResponse<Anime> deserializePageableResponse() throws IOException {
+        return objectMapper.readValue(animePageJson, pageableResponseType);
+    }
+}
@@ -0,0 +1,91 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.Springboot2EssentialsApplication;
+import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of animes read in a read-only transaction, as AnimeService does now, against a read-write one, which
+ * keeps a snapshot of every entity and dirty checks them on commit. Runs on H2 by default; to measure the MySQL
+ * statement cache as well, point it at the docker-compose database and compare the url from application.yml with
+ * one that turns the cache off:
+ * {@code -p url="jdbc:mysql://localhost:3307/anime?cachePrepStmts=false&useServerPrepStmts=false"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class AnimeTransactionBenchmark {
+    @Param({"read-only", "read-write"})
+    private String transaction;
+    @Param({"jdbc:h2:mem:transaction;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+    private String url;
+    @Param({"500"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private AnimeRepository animeRepository;
+    private TransactionTemplate transactionTemplate;
+    private Pageable page;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                // derived from the url
+                "--spring.datasource.driver-class-name=",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--anime.slow-query.enabled=false",
+                "--logging.level.root=warn");
+        animeRepository = context.getBean(AnimeRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly("read-only".equals(transaction));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from anime", Integer.class);
+        List<Object[]> names = new ArrayList<>();
+        for (int i = existing == null ? 0 : existing; i < pageSize * 4; i++) {
+            names.add(new Object[]{"Anime " + i, 0L});
+        }
+        jdbcTemplate.batchUpdate("insert into anime (name, version) values (?, ?)", names);
+        page = PageRequest.of(1, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findPage() {
+        Integer found = transactionTemplate.execute(status -> animeRepository.findAll(page).getNumberOfElements());
+        return found == null ? 0 : found;
+    }
+}
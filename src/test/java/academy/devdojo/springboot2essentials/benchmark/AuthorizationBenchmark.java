@@ -0,0 +1,78 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.domain.DevDojoUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization step of an ADMIN route: loading the authorities of the principal and checking the role.
+ * The split* benchmarks reproduce the previous DevDojoUser.getAuthorities and SpEL hasRole path for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationBenchmark {
+    private static final String AUTHORITIES = "ROLE_USER,ROLE_ADMIN";
+
+    private DevDojoUser user;
+    private AuthorityAuthorizationManager<Object> hasRoleAdmin;
+
+    @Setup
+    public void setUp() {
+        user = DevDojoUser.builder()
+                .username("wesley")
+                .authorities(AUTHORITIES)
+                .build();
+        hasRoleAdmin = AuthorityAuthorizationManager.hasRole("ADMIN");
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> splitAuthorities() {
+        return splitAuthorities(AUTHORITIES);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean splitAuthoritiesWithExpressionHasRole() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, splitAuthorities(AUTHORITIES));
+        return new SecurityExpressionRoot(authentication) {
+        }.hasRole("ADMIN");
+    }
+
+    @Benchmark
+    public boolean getAuthoritiesWithAuthorizationManager() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        return hasRoleAdmin.check(() -> authentication, null).isGranted();
+    }
+
+    private static Collection<? extends GrantedAuthority> splitAuthorities(String authorities) {
+        return Arrays.stream(authorities.split(","))
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+}
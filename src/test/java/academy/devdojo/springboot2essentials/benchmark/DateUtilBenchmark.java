@@ -0,0 +1,40 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateUtilBenchmark {
+    private final DateUtil dateUtil = new DateUtil();
+    private final LocalDateTime localDateTime = LocalDateTime.of(2023, 10, 1, 10, 30, 15);
+
+    @Benchmark
+    public String fomartLocalDateTimeToDatabaseStyle() {
+        return dateUtil.fomartLocalDateTimeToDatabaseStyle(localDateTime);
+    }
+
+    /**
+     * What DateUtil used to do, parse the pattern again on every call.
+     */
+    @Benchmark
+    public String ofPatternPerCall() {
+        return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").format(localDateTime);
+    }
+}
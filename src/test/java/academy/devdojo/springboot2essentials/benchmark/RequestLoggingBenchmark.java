@@ -0,0 +1,116 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.util.DateUtil;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request logging cost of the list endpoints. {@code before} is what AnimeController.list used to do: a new
+ * formatter and an INFO line written by the calling thread. {@code syncInfo} and {@code asyncInfo} keep the INFO
+ * line with the cached formatter, {@code disabledDebug} is what the endpoint does now. The console is replaced by
+ * a discarding stream, so the terminal write real consoles add to the synchronous variants is not measured.
+ * The async appender is set up like logback-spring.xml, when its queue fills up events are dropped instead of
+ * waiting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p %pid --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private final DateUtil dateUtil = new DateUtil();
+    private final Pageable pageable = PageRequest.of(0, 20);
+    private LoggerContext loggerContext;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+
+    @Setup
+    public void setUp() {
+        loggerContext = new LoggerContext();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(loggerContext);
+        console.setEncoder(encoder());
+        console.setOutputStream(OutputStream.nullOutputStream());
+        console.start();
+
+        AsyncAppender asyncConsole = new AsyncAppender();
+        asyncConsole.setContext(loggerContext);
+        asyncConsole.setQueueSize(8192);
+        asyncConsole.setNeverBlock(true);
+        asyncConsole.setIncludeCallerData(false);
+        asyncConsole.addAppender(console);
+        asyncConsole.start();
+
+        syncLogger = logger("sync", console);
+        asyncLogger = logger("async", asyncConsole);
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public void before() {
+        syncLogger.info(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").format(LocalDateTime.now()));
+    }
+
+    @Benchmark
+    public void syncInfo() {
+        syncLogger.info(dateUtil.fomartLocalDateTimeToDatabaseStyle(LocalDateTime.now()));
+    }
+
+    @Benchmark
+    public void asyncInfo() {
+        asyncLogger.info(dateUtil.fomartLocalDateTimeToDatabaseStyle(LocalDateTime.now()));
+    }
+
+    @Benchmark
+    public void disabledDebug() {
+        asyncLogger.debug("Listing animes {} compact={}", pageable, false);
+    }
+
+    private PatternLayoutEncoder encoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        Logger logger = loggerContext.getLogger("academy.devdojo.springboot2essentials.controller.AnimeController." + name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
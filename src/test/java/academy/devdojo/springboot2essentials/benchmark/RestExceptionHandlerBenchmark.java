@@ -0,0 +1,41 @@
+package academy.devdojo.springboot2essentials.benchmark;
+
+import academy.devdojo.springboot2essentials.execption.BadRequestException;
+import academy.devdojo.springboot2essentials.execption.BadRequestExceptionDetails;
+import academy.devdojo.springboot2essentials.handler.RestExceptionHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a missing anime: throwing BadRequestException and turning it into the error body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestExceptionHandlerBenchmark {
+    private final RestExceptionHandler restExceptionHandler = new RestExceptionHandler();
+    private final BadRequestException badRequestException = new BadRequestException("Anime not Found");
+
+    @Benchmark
+    public ResponseEntity<BadRequestExceptionDetails> handleBadRequestException() {
+        return restExceptionHandler.handleBadRequestException(badRequestException);
+    }
+
+    @Benchmark
+    public ResponseEntity<BadRequestExceptionDetails> createAndHandleBadRequestException() {
+        return restExceptionHandler.handleBadRequestException(new BadRequestException("Anime not Found"));
+    }
+}
@@ -0,0 +1,63 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+class CachingPasswordEncoderTest {
+
+    private static final String ENCODED_PASSWORD = "{bcrypt}encoded";
+
+    @Mock
+    private PasswordEncoder passwordEncoderMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingPasswordEncoder cachingPasswordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.when(passwordEncoderMock.matches("academy", ENCODED_PASSWORD)).thenReturn(true);
+        BDDMockito.when(passwordEncoderMock.matches(ArgumentMatchers.eq("wrong"), ArgumentMatchers.anyString())).thenReturn(false);
+
+        meterRegistry = new SimpleMeterRegistry();
+        cachingPasswordEncoder = new CachingPasswordEncoder(passwordEncoderMock, new SecurityCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("matches verifies the password only once when it is correct")
+    void matches_VerifyPasswordOnlyOnce_WhenPasswordIsCorrect() {
+        Assertions.assertThat(cachingPasswordEncoder.matches("academy", ENCODED_PASSWORD)).isTrue();
+        Assertions.assertThat(cachingPasswordEncoder.matches("academy", ENCODED_PASSWORD)).isTrue();
+
+        BDDMockito.verify(passwordEncoderMock, BDDMockito.times(1)).matches("academy", ENCODED_PASSWORD);
+
+        Assertions.assertThat(meterRegistry.get("security.password.verification").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("matches verifies the password every time when it is wrong")
+    void matches_VerifyPasswordEveryTime_WhenPasswordIsWrong() {
+        Assertions.assertThat(cachingPasswordEncoder.matches("wrong", ENCODED_PASSWORD)).isFalse();
+        Assertions.assertThat(cachingPasswordEncoder.matches("wrong", ENCODED_PASSWORD)).isFalse();
+
+        BDDMockito.verify(passwordEncoderMock, BDDMockito.times(2)).matches("wrong", ENCODED_PASSWORD);
+    }
+
+    @Test
+    @DisplayName("matches does not reuse a cached check when the encoded password changes")
+    void matches_VerifyAgain_WhenEncodedPasswordChanges() {
+        cachingPasswordEncoder.matches("academy", ENCODED_PASSWORD);
+
+        Assertions.assertThat(cachingPasswordEncoder.matches("academy", "{bcrypt}changed")).isFalse();
+    }
+}
@@ -0,0 +1,111 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+class PrincipalRateLimiterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong now;
+    private PrincipalRateLimiter principalRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setUser(new RateLimitProperties.Budget(3, 1));
+        properties.setAdmin(new RateLimitProperties.Budget(1, 1));
+        meterRegistry = new SimpleMeterRegistry();
+        now = new AtomicLong(-TimeUnit.SECONDS.toNanos(100));
+        principalRateLimiter = new PrincipalRateLimiter(properties, meterRegistry, now::get);
+    }
+
+    @Test
+    @DisplayName("tryAcquire allows a burst up to the capacity and then returns the wait for the next token")
+    void tryAcquire_ReturnsWait_WhenCapacityIsSpent() {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThat(principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.USER, "devdojo")).isZero();
+        }
+
+        Assertions.assertThat(principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.USER, "devdojo"))
+                .isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertThat(count("user", "allowed")).isEqualTo(3);
+        Assertions.assertThat(count("user", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("tryAcquire allows requests again once the bucket is refilled")
+    void tryAcquire_ReturnsZero_WhenBucketIsRefilled() {
+        for (int i = 0; i < 3; i++) {
+            principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.USER, "devdojo");
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        Assertions.assertThat(principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.USER, "devdojo")).isZero();
+        Assertions.assertThat(principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.USER, "devdojo"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    @DisplayName("tryAcquire keeps separate buckets per principal and per budget")
+    void tryAcquire_KeepsSeparateBuckets_WhenPrincipalOrBudgetDiffers() {
+        principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.ADMIN, "wesley");
+
+        Assertions.assertThat(principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.ADMIN, "wesley")).isPositive();
+        Assertions.assertThat(principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.USER, "wesley")).isZero();
+        Assertions.assertThat(principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.ADMIN, "devdojo")).isZero();
+        Assertions.assertThat(count("admin", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("tryAcquire never hands out more tokens than the capacity under concurrent requests")
+    void tryAcquire_AllowsCapacityOnly_WhenCalledConcurrently() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = IntStream.range(0, 8)
+                    .mapToObj(i -> executorService.submit(() -> {
+                        for (int j = 0; j < 1_000; j++) {
+                            principalRateLimiter.tryAcquire(PrincipalRateLimiter.Budget.USER, "devdojo");
+                        }
+                    }))
+                    .toArray(Future[]::new);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Assertions.assertThat(count("user", "allowed")).isEqualTo(3);
+        Assertions.assertThat(count("user", "rejected")).isEqualTo(7_997);
+    }
+
+    @Test
+    @DisplayName("RateLimitProperties rejects a budget without capacity or refill")
+    void rateLimitProperties_HasViolations_WhenBudgetIsNotPositive() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setUser(new RateLimitProperties.Budget(0, 1));
+        properties.setAdmin(new RateLimitProperties.Budget(1, 0));
+
+        try (ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory()) {
+            Assertions.assertThat(validatorFactory.getValidator().validate(properties))
+                    .extracting(violation -> violation.getPropertyPath().toString())
+                    .containsExactlyInAnyOrder("user.capacity", "admin.refillPerSecond");
+        }
+    }
+
+    private double count(String budget, String outcome) {
+        return meterRegistry.get(PrincipalRateLimiter.RATE_LIMIT_COUNTER)
+                .tag("budget", budget).tag("outcome", outcome).counter().count();
+    }
+}
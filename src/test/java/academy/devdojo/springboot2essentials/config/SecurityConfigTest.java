@@ -0,0 +1,77 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.domain.DevDojoUser;
+import academy.devdojo.springboot2essentials.service.DevDojoUserDetailsService;
+import academy.devdojo.springboot2essentials.service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+class SecurityConfigTest {
+    @Mock
+    private DevDojoUserDetailsService devDojoUserDetailsServiceMock;
+    @Mock
+    private TokenService tokenServiceMock;
+
+    private AuthenticationManager authenticationManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BDDMockito.when(devDojoUserDetailsServiceMock.loadUserByUsername(ArgumentMatchers.anyString()))
+                .thenThrow(new UsernameNotFoundException("DevDojo User not found"));
+        SecurityConfig securityConfig = new SecurityConfig(devDojoUserDetailsServiceMock, new SecurityCacheProperties(),
+                new SimpleMeterRegistry(), tokenServiceMock, new RateLimitProperties(), new ObjectMapper());
+        AuthenticationManagerBuilder auth = new AuthenticationManagerBuilder(new ObjectPostProcessor<>() {
+            @Override
+            public <O> O postProcess(O object) {
+                return object;
+            }
+        });
+        securityConfig.configure(auth);
+        authenticationManager = auth.build();
+    }
+
+    @Test
+    @DisplayName("authenticate uses the database user when an in-memory user has the same name")
+    void authenticate_UseDatabaseUser_WhenInMemoryUserHasTheSameName() {
+        BDDMockito.doReturn(DevDojoUser.builder()
+                        .username("wesley2")
+                        .password("{bcrypt}$2a$10$edC3nxbf8mDBKV2JKKNFx.cDL8LLf/Twg7tMIbZXwOSr8NNxAbom2")
+                        .authorities("ROLE_USER")
+                        .build())
+                .when(devDojoUserDetailsServiceMock).loadUserByUsername("wesley2");
+
+        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("wesley2", "academy"));
+
+        Assertions.assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("authenticate falls back to the in-memory users when the database has no such user")
+    void authenticate_UseInMemoryUser_WhenDatabaseHasNoSuchUser() {
+        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("wesley2", "academy"));
+
+        Assertions.assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        BDDMockito.verify(devDojoUserDetailsServiceMock).loadUserByUsername("wesley2");
+    }
+}
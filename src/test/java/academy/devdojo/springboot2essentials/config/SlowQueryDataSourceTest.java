@@ -0,0 +1,93 @@
+package academy.devdojo.springboot2essentials.config;
+
+import academy.devdojo.springboot2essentials.service.SlowQueryLog;
+import academy.devdojo.springboot2essentials.wrapper.SlowQueryResponse;
+import org.assertj.core.api.Assertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SlowQueryDataSourceTest {
+
+    private SlowQueryLog slowQueryLog;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slow-query-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+        JdbcTemplate setup = new JdbcTemplate(h2);
+        setup.execute("create table anime (id bigint auto_increment primary key, name varchar(255))");
+        setup.update("insert into anime (name) values ('Overlord'), ('Berserk'), ('Overlord')");
+
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThreshold(Duration.ZERO);
+        slowQueryLog = new SlowQueryLog(properties);
+        jdbcTemplate = new JdbcTemplate(new SlowQueryDataSource(h2, slowQueryLog, properties.getThreshold().toNanos()));
+    }
+
+    @Test
+    @DisplayName("records binds, rows, caller and plan of a query over the threshold")
+    void record_KeepBindsRowsCallerAndPlan_WhenQueryIsOverThreshold() {
+        List<String> names = jdbcTemplate.queryForList("select name from anime where name = ?", String.class, "Overlord");
+
+        Assertions.assertThat(names).hasSize(2);
+
+        List<SlowQueryResponse> top = slowQueryLog.top(10, null);
+
+        Assertions.assertThat(top).hasSize(1);
+
+        Assertions.assertThat(top.get(0).getStatement()).isEqualTo("select name from anime where name = ?");
+
+        Assertions.assertThat(top.get(0).getSlowest().getRows()).isEqualTo(2);
+
+        Assertions.assertThat(top.get(0).getSlowest().getBinds()).containsExactly("Overlord");
+
+        Assertions.assertThat(top.get(0).getSlowest().getCaller())
+                .isEqualTo("SlowQueryDataSourceTest.record_KeepBindsRowsCallerAndPlan_WhenQueryIsOverThreshold");
+
+        Assertions.assertThat(waitForPlan()).containsIgnoringCase("anime");
+    }
+
+    @Test
+    @DisplayName("counts the same statement with different literals as one")
+    void record_GroupStatements_WhenOnlyLiteralsDiffer() {
+        jdbcTemplate.update("update anime set name = 'Berserk' where id = 1");
+        jdbcTemplate.update("update anime set name = 'Overlord' where id = 3");
+
+        List<SlowQueryResponse> top = slowQueryLog.top(10, "count");
+
+        Assertions.assertThat(top).hasSize(1);
+
+        Assertions.assertThat(top.get(0).getStatement()).isEqualTo("update anime set name = ? where id = ?");
+
+        Assertions.assertThat(top.get(0).getCount()).isEqualTo(2);
+
+        Assertions.assertThat(top.get(0).getSlowest().getRows()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("normalize turns literals and IN lists into placeholders")
+    void normalize_ReplaceLiteralsAndInLists() {
+        Assertions.assertThat(SlowQueryLog.normalize("select a0_.id from anime a0_\n where a0_.name = 'it''s'  and a0_.id in (?, ?, ?) limit 20"))
+                .isEqualTo("select a0_.id from anime a0_ where a0_.name = ? and a0_.id in (?...) limit ?");
+    }
+
+    private String waitForPlan() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String plan = null;
+        while (plan == null && System.nanoTime() < deadline) {
+            plan = slowQueryLog.top(1, null).get(0).getPlan();
+            Thread.onSpinWait();
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,60 @@
+package academy.devdojo.springboot2essentials.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+class TimedAuthenticationManagerTest {
+
+    @Mock
+    private AuthenticationManager authenticationManagerMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TimedAuthenticationManager timedAuthenticationManager;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.when(authenticationManagerMock.authenticate(ArgumentMatchers.argThat(authentication -> authentication != null &&
+                        "academy".equals(authentication.getCredentials()))))
+                .thenReturn(new UsernamePasswordAuthenticationToken("devdojo", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        BDDMockito.when(authenticationManagerMock.authenticate(ArgumentMatchers.argThat(authentication -> authentication != null &&
+                        "wrong".equals(authentication.getCredentials()))))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        meterRegistry = new SimpleMeterRegistry();
+        timedAuthenticationManager = new TimedAuthenticationManager(authenticationManagerMock, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("authenticate records a successful password authentication when credentials are right")
+    void authenticate_RecordSuccess_WhenCredentialsAreRight() {
+        Assertions.assertThat(timedAuthenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken("devdojo", "academy")).isAuthenticated()).isTrue();
+
+        Assertions.assertThat(meterRegistry.get(TimedAuthenticationManager.AUTHENTICATION_TIMER)
+                .tag("type", "password").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("authenticate records a failed password authentication when credentials are wrong")
+    void authenticate_RecordFailure_WhenCredentialsAreWrong() {
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> timedAuthenticationManager.authenticate(new UsernamePasswordAuthenticationToken("devdojo", "wrong")));
+
+        Assertions.assertThat(meterRegistry.get(TimedAuthenticationManager.AUTHENTICATION_TIMER)
+                .tag("type", "password").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+}
@@ -1,13 +1,26 @@
 package academy.devdojo.springboot2essentials.controller;
 
+import academy.devdojo.springboot2essentials.config.AnimeHttpCacheProperties;
+import academy.devdojo.springboot2essentials.config.AnimeIngestionProperties;
+import academy.devdojo.springboot2essentials.config.AnimeListCacheProperties;
 import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.execption.PreconditionFailedException;
+import academy.devdojo.springboot2essentials.requests.AnimePatchRequestBody;
 import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.service.AnimeChangeTracker;
+import academy.devdojo.springboot2essentials.service.AnimeIngestionQueue;
+import academy.devdojo.springboot2essentials.service.AnimeListResponseCache;
 import academy.devdojo.springboot2essentials.service.AnimeService;
 import academy.devdojo.springboot2essentials.util.AnimeCreator;
 import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
 import academy.devdojo.springboot2essentials.util.AnimePutRequestBodyCreator;
-import academy.devdojo.springboot2essentials.util.DateUtil;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import academy.devdojo.springboot2essentials.wrapper.KeysetResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,14 +30,28 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 @ExtendWith(SpringExtension.class)
 class AnimeControllerTest {
@@ -33,53 +60,182 @@ class AnimeControllerTest {
     private AnimeController animeController;
     @Mock
     private AnimeService animeServiceMock;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private AnimeChangeTracker animeChangeTracker = new AnimeChangeTracker();
+    @Spy
+    private AnimeHttpCacheProperties animeHttpCacheProperties = new AnimeHttpCacheProperties();
     @Mock
-    private DateUtil dateUtil;
+    private AnimeIngestionQueue animeIngestionQueueMock;
+    @Spy
+    private AnimeIngestionProperties animeIngestionProperties = new AnimeIngestionProperties();
+    @Spy
+    private AnimeListResponseCache animeListResponseCache = new AnimeListResponseCache(objectMapper,
+            new AnimeListCacheProperties(), compressedServerProperties(), new SimpleMeterRegistry());
 
     @BeforeEach
     void setUp() {
-        PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnime()));
+        PageImpl<AnimeResponse> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnimeResponse()));
         BDDMockito.when(animeServiceMock.listAll(ArgumentMatchers.any()))
                 .thenReturn(animePage);
 
+        BDDMockito.when(animeServiceMock.listAllAfter(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidAnimeResponse())));
+
         BDDMockito.when(animeServiceMock.listAllNonPageable())
-                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+                .thenReturn(List.of(AnimeCreator.createValidAnimeResponse()));
+
+        BDDMockito.doAnswer(invocation -> {
+            Consumer<AnimeResponse> consumer = invocation.getArgument(0);
+            consumer.accept(AnimeCreator.createValidAnimeResponse());
+            return null;
+        }).when(animeServiceMock).streamAll(ArgumentMatchers.any());
 
         BDDMockito.when(animeServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
-                .thenReturn(AnimeCreator.createValidAnime());
+                .thenReturn(AnimeCreator.createValidAnimeResponse());
 
         BDDMockito.when(animeServiceMock.findByName(ArgumentMatchers.anyString()))
-                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+                .thenReturn(List.of(AnimeCreator.createValidAnimeResponse()));
 
         BDDMockito.when(animeServiceMock.save(ArgumentMatchers.any(AnimePostRequestBody.class)))
                 .thenReturn(AnimeCreator.createValidAnime());
 
         BDDMockito.doNothing().when(animeServiceMock).delete(ArgumentMatchers.anyLong());
 
-        BDDMockito.doNothing().when(animeServiceMock).replace(ArgumentMatchers.any(AnimePutRequestBody.class));
+        BDDMockito.doNothing().when(animeServiceMock).replace(ArgumentMatchers.any(AnimePutRequestBody.class), ArgumentMatchers.any());
     }
 
     @Test
     @DisplayName("List returns List of Anime inside Page object when successful")
-    void list_ReturnListOfAnimeInsidePageObject_WhenSuccessful() {
+    void list_ReturnListOfAnimeInsidePageObject_WhenSuccessful() throws IOException {
         String expectedName = AnimeCreator.createValidAnime().getName();
-        Page<Anime> animePage = animeController.list(null).getBody();
+        JsonNode animePage = objectMapper.readTree(bytes(animeController.list(null, false, webRequest())));
 
         Assertions.assertThat(animePage).isNotNull();
 
-        Assertions.assertThat(animePage.toList())
+        Assertions.assertThat(animePage.get("content"))
+                .isNotEmpty()
+                .hasSize(1);
+
+        Assertions.assertThat(animePage.get("content").get(0).get("name").asText()).isEqualTo(expectedName);
+
+    }
+
+    @Test
+    @DisplayName("List returns not modified without querying when the ETag still matches")
+    void list_ReturnNotModifiedWithoutQuerying_WhenETagMatches() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, animeChangeTracker.etag());
+
+        ResponseEntity<Object> entity = animeController.list(null, false, new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        Assertions.assertThat(entity.getBody()).isNull();
+
+        BDDMockito.verify(animeServiceMock, Mockito.never()).listAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("List returns a new ETag after animes change")
+    void list_ReturnNewETag_WhenAnimesChanged() {
+        String etag = animeController.list(null, false, webRequest()).getHeaders().getETag();
+
+        animeChangeTracker.markChanged();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        ResponseEntity<Object> entity = animeController.list(null, false, new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Assertions.assertThat(entity.getHeaders().getETag()).isNotEqualTo(etag);
+
+        BDDMockito.verify(animeServiceMock, Mockito.times(2)).listAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("List serves the cached bytes without querying again while animes did not change")
+    void list_ServeCachedBytesWithoutQuerying_WhenAnimesDidNotChange() {
+        byte[] first = bytes(animeController.list(null, false, webRequest()));
+        byte[] second = bytes(animeController.list(null, false, webRequest()));
+
+        Assertions.assertThat(second).isSameAs(first);
+
+        BDDMockito.verify(animeServiceMock, Mockito.times(1)).listAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("List leaves pageable and sort out when compact is requested")
+    void list_LeavePageableAndSortOut_WhenCompact() throws IOException {
+        JsonNode page = objectMapper.readTree(bytes(animeController.list(null, true, webRequest())));
+
+        Assertions.assertThat(page.has("pageable")).isFalse();
+
+        Assertions.assertThat(page.has("sort")).isFalse();
+
+        Assertions.assertThat(page.get("totalElements").asLong()).isEqualTo(1L);
+
+        Assertions.assertThat(page.get("content").get(0).get("name").asText())
+                .isEqualTo(AnimeCreator.createValidAnime().getName());
+    }
+
+    @Test
+    @DisplayName("List returns the gzipped body when the client accepts gzip and the body is over the threshold")
+    void list_ReturnGzippedBody_WhenClientAcceptsGzip() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+
+        ResponseEntity<Object> entity = animeController.list(null, false, new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        Assertions.assertThat(entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        Assertions.assertThat(entity.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(bytes(entity)))) {
+            Assertions.assertThat(objectMapper.readTree(body).get("content").get(0).get("name").asText())
+                    .isEqualTo(AnimeCreator.createValidAnime().getName());
+        }
+    }
+
+    @Test
+    @DisplayName("List returns the plain body when the client refuses gzip")
+    void list_ReturnPlainBody_WhenClientRefusesGzip() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+
+        ResponseEntity<Object> entity = animeController.list(null, false, new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        Assertions.assertThat(entity.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+    }
+
+    @Test
+    @DisplayName("listKeyset returns List of Anime without next cursor when it is the last slice")
+    void listKeyset_ReturnListOfAnimeWithoutNextCursor_WhenLastSlice() {
+        String expectedName = AnimeCreator.createValidAnime().getName();
+        KeysetResponse<AnimeResponse> animeKeyset = animeController.listKeyset(null, 20).getBody();
+
+        Assertions.assertThat(animeKeyset).isNotNull();
+
+        Assertions.assertThat(animeKeyset.getContent())
                 .isNotEmpty()
                 .hasSize(1);
 
-        Assertions.assertThat(animePage.toList().get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(animeKeyset.getContent().get(0).getName()).isEqualTo(expectedName);
+
+        Assertions.assertThat(animeKeyset.isHasNext()).isFalse();
 
+        Assertions.assertThat(animeKeyset.getNext()).isNull();
     }
 
     @Test
     @DisplayName("listAll return a List of Anime when successful")
-    void listAll_ReturnListOfAnime_WhenSuccessful() {
+    void listAll_ReturnListOfAnime_WhenSuccessful() throws IOException {
         String expectedName = AnimeCreator.createValidAnime().getName();
-        List<Anime> animeList = animeController.listAll().getBody();
+        List<Anime> animeList = objectMapper.readValue(bytes(animeController.listAll(webRequest())),
+                new TypeReference<List<Anime>>() {
+                });
 
         Assertions.assertThat(animeList)
                 .isNotNull()
@@ -89,11 +245,26 @@ class AnimeControllerTest {
         Assertions.assertThat(animeList.get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("stream writes one json line per Anime when successful")
+    void stream_WritesOneJsonLinePerAnime_WhenSuccessful() throws IOException {
+        String expectedName = AnimeCreator.createValidAnime().getName();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        animeController.stream().getBody().writeTo(outputStream);
+
+        List<String> lines = outputStream.toString().lines().toList();
+
+        Assertions.assertThat(lines).hasSize(1);
+
+        Assertions.assertThat(objectMapper.readValue(lines.get(0), Anime.class).getName()).isEqualTo(expectedName);
+    }
+
     @Test
     @DisplayName("findById returns Anime when successful")
     void findById_ReturnAnAnime_WhenSuccessful() {
         Anime expectedAnime = AnimeCreator.createValidAnime();
-        Anime anime = animeController.findById(1L).getBody();
+        AnimeResponse anime = animeController.findById(1L, webRequest()).getBody();
 
         Assertions.assertThat(anime).isNotNull();
 
@@ -102,11 +273,26 @@ class AnimeControllerTest {
                 .isEqualTo(expectedAnime.getId());
     }
 
+    @Test
+    @DisplayName("findById returns the ETag made of id and version when successful")
+    void findById_ReturnETagOfIdAndVersion_WhenSuccessful() {
+        BDDMockito.when(animeServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
+                .thenReturn(new AnimeResponse(1L, "Hajime no Ippo", 3L, Instant.parse("2023-01-01T00:00:00Z")));
+
+        ResponseEntity<AnimeResponse> entity = animeController.findById(1L, webRequest());
+
+        Assertions.assertThat(entity.getHeaders().getETag()).isEqualTo("\"1-3\"");
+
+        Assertions.assertThat(entity.getHeaders().getLastModified()).isEqualTo(Instant.parse("2023-01-01T00:00:00Z").toEpochMilli());
+
+        Assertions.assertThat(entity.getHeaders().getCacheControl()).contains("no-cache");
+    }
+
     @Test
     @DisplayName("findByName returns a List of Anime when successful")
     void findByName_ReturnListOfAnime_WhenSuccessful() {
         Anime expectedAnime = AnimeCreator.createValidAnime();
-        List<Anime> animeList = animeController.findByName(expectedAnime.getName()).getBody();
+        List<AnimeResponse> animeList = animeController.findByName(expectedAnime.getName()).getBody();
 
         Assertions.assertThat(animeList)
                 .isNotNull()
@@ -124,7 +310,7 @@ class AnimeControllerTest {
         BDDMockito.when(animeServiceMock.findByName(ArgumentMatchers.anyString()))
                 .thenReturn(Collections.emptyList());
 
-        List<Anime> animeList = animeController.findByName("anime").getBody();
+        List<AnimeResponse> animeList = animeController.findByName("anime").getBody();
 
         Assertions.assertThat(animeList).isEmpty();
     }
@@ -132,7 +318,7 @@ class AnimeControllerTest {
     @Test
     @DisplayName("save returns Anime when successful")
     void save_ReturnAnime_WhenSuccessful() {
-        Anime anime = animeController.save(AnimePostRequestBodyCreator.createAnimePostRequestBody()).getBody();
+        Object anime = animeController.save(AnimePostRequestBodyCreator.createAnimePostRequestBody(), null).getBody();
 
         Assertions.assertThat(anime).isNotNull().isEqualTo(AnimeCreator.createValidAnime());
     }
@@ -152,7 +338,7 @@ class AnimeControllerTest {
     @Test
     @DisplayName("replace updates Anime when successful")
     void replace_UpdateAnime_WhenSuccessful() {
-        ResponseEntity<Void> entity = animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody());
+        ResponseEntity<Void> entity = animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null);
 
         Assertions.assertThatCode(entity::getBody).doesNotThrowAnyException();
 
@@ -160,4 +346,49 @@ class AnimeControllerTest {
 
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("replace passes the version from If-Match to the service when successful")
+    void replace_PassVersionFromIfMatch_WhenSuccessful() {
+        ResponseEntity<Void> entity = animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), "\"1-4\"");
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        BDDMockito.verify(animeServiceMock).replace(ArgumentMatchers.any(AnimePutRequestBody.class), ArgumentMatchers.eq(4L));
+    }
+
+    @Test
+    @DisplayName("replace throws PreconditionFailedException when If-Match holds an ETag of another anime")
+    void replace_ThrowsPreconditionFailedException_WhenIfMatchIsOfAnotherAnime() {
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), "\"2-4\""));
+    }
+
+    @Test
+    @DisplayName("patch returns no content when successful")
+    void patch_ReturnNoContent_WhenSuccessful() {
+        ResponseEntity<Void> entity = animeController.patch(1L, new AnimePatchRequestBody("Overlord"), null);
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        BDDMockito.verify(animeServiceMock).patch(1L, new AnimePatchRequestBody("Overlord"), null);
+    }
+
+    /**
+     * A zero threshold so even the one anime page of these tests gets a gzipped copy.
+     */
+    private static ServerProperties compressedServerProperties() {
+        ServerProperties serverProperties = new ServerProperties();
+        serverProperties.getCompression().setEnabled(true);
+        serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(0));
+        return serverProperties;
+    }
+
+    private static byte[] bytes(ResponseEntity<Object> entity) {
+        return (byte[]) entity.getBody();
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/animes"), new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,180 @@
+package academy.devdojo.springboot2essentials.integration;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.service.AnimeChangeFeed;
+import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "anime.changes.sender-threads=1",
+        "anime.changes.send-timeout=1s"
+})
+@AutoConfigureTestDatabase
+public class AnimeChangesIT {
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private AnimeChangeFeed animeChangeFeed;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("changes streams the animes created, updated and deleted after subscribing")
+    void changes_StreamsCreatedUpdatedAndDeleted_WhenAnimesChange() throws Exception {
+        try (EventStream events = new EventStream(null)) {
+            Anime anime = testRestTemplate.withBasicAuth("devdojo2", "academy")
+                    .postForObject("/animes", AnimePostRequestBodyCreator.createAnimePostRequestBody(), Anime.class);
+            testRestTemplate.withBasicAuth("devdojo2", "academy").put("/animes",
+                    AnimePutRequestBody.builder().id(anime.getId()).name("Changed").build());
+            testRestTemplate.withBasicAuth("wesley2", "academy")
+                    .exchange("/animes/admin/" + anime.getId(), HttpMethod.DELETE, null, Void.class);
+
+            Assertions.assertThat(events.next()).contains("event:created", "\"id\":" + anime.getId());
+            Assertions.assertThat(events.next()).contains("event:updated", "\"name\":\"Changed\"");
+            Assertions.assertThat(events.next()).contains("event:deleted", "\"id\":" + anime.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("changes resumes after the Last-Event-ID sent by a reconnecting client")
+    void changes_ResumesAfterLastEventId_WhenClientReconnects() throws Exception {
+        String lastEventId;
+        Anime second;
+        try (EventStream events = new EventStream(null)) {
+            testRestTemplate.withBasicAuth("devdojo2", "academy")
+                    .postForObject("/animes", AnimePostRequestBodyCreator.createAnimePostRequestBody(), Anime.class);
+            lastEventId = events.next().lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+        }
+        second = testRestTemplate.withBasicAuth("devdojo2", "academy")
+                .postForObject("/animes", AnimePostRequestBodyCreator.createAnimePostRequestBody(), Anime.class);
+
+        try (EventStream events = new EventStream(lastEventId)) {
+            Assertions.assertThat(events.next()).contains("event:created", "\"id\":" + second.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("changes keeps streaming to the other clients when one client never reads")
+    void changes_KeepsStreamingToOtherClients_WhenOneClientNeverReads() throws Exception {
+        try (Socket neverReading = new Socket()) {
+            neverReading.setReceiveBufferSize(4096);
+            neverReading.connect(new InetSocketAddress("localhost", port));
+            OutputStream request = neverReading.getOutputStream();
+            request.write(("GET /animes/changes HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n" +
+                    "Authorization: Basic " + Base64.getEncoder().encodeToString("devdojo2:academy".getBytes(StandardCharsets.UTF_8)) +
+                    "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            request.flush();
+            try (EventStream events = new EventStream(null)) {
+                Assertions.assertThat(awaitSubscribers(2)).isTrue();
+                // more than the socket buffers take, the writes to the client that never reads block
+                String name = "x".repeat(64 * 1024);
+                for (long id = 1; id <= 300; id++) {
+                    animeChangeFeed.publish(AnimeChangeEvent.Type.UPDATED, id, name);
+                }
+                Anime anime = testRestTemplate.withBasicAuth("devdojo2", "academy")
+                        .postForObject("/animes", AnimePostRequestBodyCreator.createAnimePostRequestBody(), Anime.class);
+
+                String event = events.next();
+                while (!event.contains("event:created")) {
+                    event = events.next();
+                }
+                Assertions.assertThat(event).contains("\"id\":" + anime.getId());
+                Assertions.assertThat(meterRegistry.get("anime.changes.disconnected").tag("reason", "stalled").counter().count())
+                        .isPositive();
+            }
+        }
+    }
+
+    private boolean awaitSubscribers(int count) throws InterruptedException {
+        for (int i = 0; i < 50 && animeChangeFeed.subscriberCount() < count; i++) {
+            Thread.sleep(100);
+        }
+        return animeChangeFeed.subscriberCount() >= count;
+    }
+
+    /**
+     * Reads /animes/changes on a background thread, one string per event.
+     */
+    private class EventStream implements AutoCloseable {
+        private final Stream<String> lines;
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        EventStream(String lastEventId) throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/animes/changes"))
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .header(HttpHeaders.AUTHORIZATION,
+                            "Basic " + Base64.getEncoder().encodeToString("devdojo2:academy".getBytes(StandardCharsets.UTF_8)));
+            if (lastEventId != null) {
+                request.header("Last-Event-ID", lastEventId);
+            }
+            HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.ofLines());
+            Assertions.assertThat(response.statusCode()).isEqualTo(200);
+            lines = response.body();
+            Thread reader = new Thread(this::read, "anime-changes-it");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void read() {
+            StringBuilder event = new StringBuilder();
+            try {
+                lines.forEach(line -> {
+                    if (line.startsWith(":")) {
+                        // heartbeat
+                        return;
+                    }
+                    if (!line.isEmpty()) {
+                        event.append(line).append('\n');
+                    } else if (event.length() > 0) {
+                        events.add(event.toString());
+                        event.setLength(0);
+                    }
+                });
+            } catch (UncheckedIOException ignored) {
+                // closed by the test
+            }
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(10, TimeUnit.SECONDS);
+            Assertions.assertThat(event).as("event received").isNotNull();
+            return event;
+        }
+
+        @Override
+        public void close() {
+            lines.close();
+        }
+    }
+}
@@ -6,36 +6,56 @@ import academy.devdojo.springboot2essentials.repository.AnimeRepository;
 import academy.devdojo.springboot2essentials.repository.DevDojoUserRepository;
 import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
 import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.requests.TokenRequestBody;
 import academy.devdojo.springboot2essentials.util.AnimeCreator;
 import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
 import academy.devdojo.springboot2essentials.util.AnimePutRequestBodyCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeBatchItemResult;
+import academy.devdojo.springboot2essentials.wrapper.KeysetResponse;
+import academy.devdojo.springboot2essentials.wrapper.TokenResponse;
 import academy.devdojo.springboot2essentials.wrapper.PageableResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.assertj.core.api.Assertions;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "anime.async.enabled=true")
 @AutoConfigureTestDatabase
+@AutoConfigureMetrics
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@Slf4j
 public class AnimeControllerIT {
     @Autowired
     @Qualifier(value = "testRestTemplateRoleUser")
@@ -47,10 +67,19 @@ public class AnimeControllerIT {
 
 //    @LocalServerPort
 //    private int port;
+    @Autowired
+    @Qualifier(value = "testRestTemplateAnonymous")
+    private TestRestTemplate testRestTemplateAnonymous;
     @Autowired
     private AnimeRepository animeRepository;
     @Autowired
     private DevDojoUserRepository devDojoUserRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationContext applicationContext;
 
     private static final DevDojoUser USER = DevDojoUser.builder()
             .name("Devdojo Academy")
@@ -84,6 +113,13 @@ public class AnimeControllerIT {
                     .basicAuthentication("wesley", "academy");
             return new TestRestTemplate(restTemplateBuilder);
         }
+
+        @Bean(name = "testRestTemplateAnonymous")
+        public TestRestTemplate testRestTemplateAnonymousCreator(@Value("${local.server.port}") int port) {
+            RestTemplateBuilder restTemplateBuilder = new RestTemplateBuilder()
+                    .rootUri("http://localhost:" + port);
+            return new TestRestTemplate(restTemplateBuilder);
+        }
     }
 
     @Test
@@ -107,6 +143,34 @@ public class AnimeControllerIT {
         Assertions.assertThat(animePage.toList().get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("listKeyset walks every Anime using the next cursor when successful")
+    void listKeyset_WalkEveryAnimeUsingNextCursor_WhenSuccessful() {
+        Anime first = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        Anime second = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        KeysetResponse<Anime> firstPage = testRestTemplateRoleUser.exchange("/animes/keyset?size=1", HttpMethod.GET, null,
+                new ParameterizedTypeReference<KeysetResponse<Anime>>() {
+                }).getBody();
+
+        Assertions.assertThat(firstPage).isNotNull();
+
+        Assertions.assertThat(firstPage.getContent()).extracting(Anime::getId).containsExactly(first.getId());
+
+        Assertions.assertThat(firstPage.getNext()).isNotNull();
+
+        KeysetResponse<Anime> secondPage = testRestTemplateRoleUser.exchange("/animes/keyset?size=1&after={after}", HttpMethod.GET, null,
+                new ParameterizedTypeReference<KeysetResponse<Anime>>() {
+                }, firstPage.getNext()).getBody();
+
+        Assertions.assertThat(secondPage).isNotNull();
+
+        Assertions.assertThat(secondPage.getContent()).extracting(Anime::getId).containsExactly(second.getId());
+
+        Assertions.assertThat(secondPage.isHasNext()).isFalse();
+    }
+
     @Test
     @DisplayName("listAll return a List of Anime when successful")
     void listAll_ReturnListOfAnime_WhenSuccessful() {
@@ -131,6 +195,23 @@ public class AnimeControllerIT {
         Assertions.assertThat(animeEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    @DisplayName("stream returns newline delimited Anime when successful")
+    void stream_ReturnNewlineDelimitedAnime_WhenSuccessful() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        ResponseEntity<String> animeEntity = testRestTemplateRoleUser.getForEntity("/animes/stream", String.class);
+
+        Assertions.assertThat(animeEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Assertions.assertThat(animeEntity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+
+        Assertions.assertThat(Objects.requireNonNull(animeEntity.getBody()).lines().toList())
+                .hasSize(1)
+                .allMatch(line -> line.contains(savedAnime.getName()));
+    }
+
     @Test
     @DisplayName("findById returns Anime when successful")
     void findById_ReturnAnAnime_WhenSuccessful() {
@@ -148,6 +229,366 @@ public class AnimeControllerIT {
         Assertions.assertThat(animeEntity.getBody().getName()).isNotNull().isEqualTo(savedAnime.getName());
     }
 
+    @Test
+    @DisplayName("findAllById returns the animes in the order of the ids and the ids not found, also through POST /animes/lookup")
+    void findAllById_ReturnAnimesInOrderAndMissingIds_WhenSuccessful() {
+        Anime first = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        Anime second = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+        long missingId = second.getId() + 100;
+
+        ResponseEntity<JsonNode> get = testRestTemplateRoleUser.getForEntity("/animes?ids={ids}", JsonNode.class,
+                second.getId() + "," + missingId + "," + first.getId());
+        ResponseEntity<JsonNode> post = testRestTemplateRoleUser.postForEntity("/animes/lookup",
+                List.of(second.getId(), missingId, first.getId()), JsonNode.class);
+
+        for (ResponseEntity<JsonNode> lookup : List.of(get, post)) {
+            Assertions.assertThat(lookup.getStatusCode()).isEqualTo(HttpStatus.OK);
+            Assertions.assertThat(lookup.getBody()).isNotNull();
+            Assertions.assertThat(lookup.getBody().get("animes").findValuesAsText("id"))
+                    .containsExactly(second.getId().toString(), first.getId().toString());
+            Assertions.assertThat(lookup.getBody().get("missing")).hasSize(1);
+            Assertions.assertThat(lookup.getBody().get("missing").get(0).asLong()).isEqualTo(missingId);
+        }
+    }
+
+    @Test
+    @DisplayName("findById returns cached Anime without reaching the database on repeated calls")
+    void findById_ReturnCachedAnime_WhenCalledAgain() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        jdbcTemplate.update("update anime set name = ? where id = ?", "changed behind the cache", savedAnime.getId());
+
+        ResponseEntity<Anime> animeEntity = testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        Assertions.assertThat(animeEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Assertions.assertThat(animeEntity.getBody()).isNotNull();
+
+        Assertions.assertThat(animeEntity.getBody().getName()).isEqualTo(savedAnime.getName());
+    }
+
+    @Test
+    @DisplayName("async list returns list of anime inside page object when successful")
+    void asyncList_ReturnListOfAnimeInsidePageObject_WhenSuccessful() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        PageableResponse<Anime> animePage = testRestTemplateRoleUser.exchange("/animes/async?page=0", HttpMethod.GET, null,
+                new ParameterizedTypeReference<PageableResponse<Anime>>() {
+                }).getBody();
+
+        Assertions.assertThat(animePage).isNotNull();
+
+        Assertions.assertThat(animePage.toList())
+                .extracting(Anime::getName)
+                .containsExactly(savedAnime.getName());
+    }
+
+    @Test
+    @DisplayName("async endpoints leave Spring MVC its applicationTaskExecutor")
+    void applicationTaskExecutor_IsRegistered_WhenAsyncIsEnabled() {
+        Assertions.assertThat(applicationContext.containsBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)).isTrue();
+    }
+
+    @Test
+    @DisplayName("async findById returns Anime when successful")
+    void asyncFindById_ReturnAnAnime_WhenSuccessful() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        ResponseEntity<Anime> animeEntity = testRestTemplateRoleUser.getForEntity("/animes/async/{id}", Anime.class, savedAnime.getId());
+
+        Assertions.assertThat(animeEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Assertions.assertThat(animeEntity.getBody()).isNotNull();
+
+        Assertions.assertThat(animeEntity.getBody().getName()).isEqualTo(savedAnime.getName());
+    }
+
+    @Test
+    @DisplayName("async findById returns bad request when anime is not found")
+    void asyncFindById_ReturnBadRequest_WhenAnimeIsNotFound() {
+        devDojoUserRepository.save(USER);
+
+        ResponseEntity<String> response = testRestTemplateRoleUser.getForEntity("/animes/async/{id}", String.class, 999_999L);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        Assertions.assertThat(response.getBody()).contains("Anime not Found");
+    }
+
+    @Test
+    @DisplayName("replace evicts the cached Anime when successful")
+    void replace_EvictCachedAnime_WhenSuccessful() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        AnimePutRequestBody animePutRequestBody = AnimePutRequestBody.builder()
+                .id(savedAnime.getId())
+                .name("new name")
+                .build();
+
+        testRestTemplateRoleUser.exchange("/animes", HttpMethod.PUT, new HttpEntity<>(animePutRequestBody), Void.class);
+
+        ResponseEntity<Anime> animeEntity = testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        Assertions.assertThat(animeEntity.getBody()).isNotNull();
+
+        Assertions.assertThat(animeEntity.getBody().getName()).isEqualTo("new name");
+    }
+
+    @Test
+    @DisplayName("findById returns not modified when the ETag still matches")
+    void findById_ReturnNotModified_WhenETagMatches() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        ResponseEntity<Anime> animeEntity = testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        Assertions.assertThat(animeEntity.getHeaders().getETag()).isEqualTo("\"" + savedAnime.getId() + "-0\"");
+
+        Assertions.assertThat(animeEntity.getHeaders().getCacheControl()).contains("no-cache", "private");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(animeEntity.getHeaders().getETag());
+        ResponseEntity<String> notModified = testRestTemplateRoleUser.exchange("/animes/{id}", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class, savedAnime.getId());
+
+        Assertions.assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        Assertions.assertThat(notModified.getBody()).isNull();
+    }
+
+    @Test
+    @DisplayName("replace changes the ETag of the anime and of the list when successful")
+    void replace_ChangeETags_WhenSuccessful() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        String animeETag = testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId())
+                .getHeaders().getETag();
+        String listETag = testRestTemplateRoleUser.getForEntity("/animes/all", String.class).getHeaders().getETag();
+
+        HttpHeaders listHeaders = new HttpHeaders();
+        listHeaders.setIfNoneMatch(listETag);
+        Assertions.assertThat(testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET,
+                new HttpEntity<>(listHeaders), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        testRestTemplateRoleUser.exchange("/animes", HttpMethod.PUT,
+                new HttpEntity<>(new AnimePutRequestBody(savedAnime.getId(), "new name")), Void.class);
+
+        ResponseEntity<Anime> animeEntity = testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        Assertions.assertThat(animeEntity.getHeaders().getETag()).isNotEqualTo(animeETag);
+
+        Assertions.assertThat(animeEntity.getBody()).isNotNull();
+
+        Assertions.assertThat(animeEntity.getBody().getVersion()).isEqualTo(1L);
+
+        Assertions.assertThat(testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET,
+                new HttpEntity<>(listHeaders), String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("replace returns 412 precondition failed when If-Match holds a stale ETag")
+    void replace_ReturnPreconditionFailed_WhenIfMatchIsStale() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        String animeETag = testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId())
+                .getHeaders().getETag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(animeETag);
+
+        ResponseEntity<Void> firstReplace = testRestTemplateRoleUser.exchange("/animes", HttpMethod.PUT,
+                new HttpEntity<>(new AnimePutRequestBody(savedAnime.getId(), "first writer"), headers), Void.class);
+
+        Assertions.assertThat(firstReplace.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        ResponseEntity<Void> secondReplace = testRestTemplateRoleUser.exchange("/animes", HttpMethod.PUT,
+                new HttpEntity<>(new AnimePutRequestBody(savedAnime.getId(), "second writer"), headers), Void.class);
+
+        Assertions.assertThat(secondReplace.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        Assertions.assertThat(animeRepository.findById(savedAnime.getId()))
+                .get()
+                .extracting(Anime::getName)
+                .isEqualTo("first writer");
+    }
+
+    @Test
+    @DisplayName("listAll returns the gzipped list when the client accepts gzip and a fresh one after a save")
+    void listAll_ReturnGzippedListAndRefreshAfterSave_WhenClientAcceptsGzip() throws IOException {
+        animeRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .collect(Collectors.toList()));
+        devDojoUserRepository.save(USER);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        ResponseEntity<byte[]> gzippedEntity = testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+
+        Assertions.assertThat(gzippedEntity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(Objects.requireNonNull(gzippedEntity.getBody())))) {
+            Assertions.assertThat(objectMapper.readTree(body)).hasSize(100);
+        }
+
+        testRestTemplateRoleUser.postForEntity("/animes", AnimePostRequestBodyCreator.createAnimePostRequestBody(), Anime.class);
+
+        ResponseEntity<List<Anime>> animeEntity = testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET, null,
+                new ParameterizedTypeReference<>() {
+                });
+
+        Assertions.assertThat(animeEntity.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+
+        Assertions.assertThat(animeEntity.getBody()).hasSize(101);
+    }
+
+    @Test
+    @DisplayName("listAll sends the gzipped and the plain list with their own ETag and revalidates both")
+    void listAll_ReturnETagPerEncoding_WhenClientRevalidates() {
+        animeRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .toList());
+        devDojoUserRepository.save(USER);
+        HttpHeaders gzip = new HttpHeaders();
+        gzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        HttpHeaders identity = new HttpHeaders();
+        identity.set(HttpHeaders.ACCEPT_ENCODING, "identity");
+
+        String gzipETag = testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET, new HttpEntity<>(gzip), byte[].class)
+                .getHeaders().getETag();
+        String identityETag = testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET, new HttpEntity<>(identity), byte[].class)
+                .getHeaders().getETag();
+
+        Assertions.assertThat(gzipETag).isNotNull().endsWith("-gzip\"").isNotEqualTo(identityETag);
+        gzip.setIfNoneMatch(Objects.requireNonNull(gzipETag));
+        identity.setIfNoneMatch(Objects.requireNonNull(identityETag));
+        ResponseEntity<byte[]> gzipRevalidated = testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET,
+                new HttpEntity<>(gzip), byte[].class);
+        Assertions.assertThat(gzipRevalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(gzipRevalidated.getHeaders().getETag()).isEqualTo(gzipETag);
+        Assertions.assertThat(testRestTemplateRoleUser.exchange("/animes/all", HttpMethod.GET, new HttpEntity<>(identity), byte[].class)
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("list returns the page without pageable and sort when compact is requested")
+    void list_ReturnCompactPage_WhenCompactIsRequested() {
+        animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        ResponseEntity<String> compactEntity = testRestTemplateRoleUser.getForEntity("/animes?size=3&page=0&compact=true", String.class);
+
+        Assertions.assertThat(compactEntity.getBody())
+                .doesNotContain("\"pageable\"")
+                .doesNotContain("\"sort\"");
+
+        PageableResponse<Anime> animePage = testRestTemplateRoleUser.exchange("/animes?size=3&page=0&compact=true", HttpMethod.GET, null,
+                new ParameterizedTypeReference<PageableResponse<Anime>>() {
+                }).getBody();
+
+        Assertions.assertThat(animePage).isNotNull();
+
+        Assertions.assertThat(animePage.getTotalElements()).isEqualTo(1);
+
+        Assertions.assertThat(animePage.getContent()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("prometheus exports the hot path timers and one statement for a replace when requests were made")
+    void prometheus_ExportHotPathMetrics_WhenRequestsWereMade() throws IOException {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        HttpHeaders ifMatch = new HttpHeaders();
+        ifMatch.setIfMatch(Objects.requireNonNull(testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId())
+                .getHeaders().getETag()));
+        // with If-Match the new version is known, the PUT is the guarded UPDATE alone
+        testRestTemplateRoleUser.exchange("/animes", HttpMethod.PUT,
+                new HttpEntity<>(new AnimePutRequestBody(savedAnime.getId(), "new name"), ifMatch), Void.class);
+
+        String prometheus = testRestTemplateAnonymous.getForObject("/actuator/prometheus", String.class);
+
+        Assertions.assertThat(prometheus)
+                .contains("anime_service_seconds_bucket{")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("security_authentication_seconds_bucket{")
+                .contains("anime_hibernate_statements_bucket{");
+
+        JsonNode statements = objectMapper.readTree(testRestTemplateAnonymous.getForObject(
+                "/actuator/metrics/anime.hibernate.statements?tag=method:PUT&tag=uri:/animes", String.class));
+
+        Assertions.assertThat(statements.get("measurements"))
+                .extracting(measurement -> measurement.get("statistic").asText() + "=" + measurement.get("value").asDouble())
+                .contains("COUNT=1.0", "TOTAL=1.0");
+    }
+
+    @Test
+    @DisplayName("slowqueries returns the slow statements to admins only")
+    void slowQueries_ReturnStatementsToAdminsOnly_WhenRequested() {
+        devDojoUserRepository.save(USER);
+
+        ResponseEntity<String> userEntity = testRestTemplateRoleUser.getForEntity("/actuator/slowqueries", String.class);
+
+        Assertions.assertThat(userEntity.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        devDojoUserRepository.save(ADMIN);
+
+        ResponseEntity<String> adminEntity = testRestTemplateRoleAdmin.getForEntity("/actuator/slowqueries?top=5", String.class);
+
+        Assertions.assertThat(adminEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Assertions.assertThat(adminEntity.getBody())
+                .contains("\"thresholdMillis\":200")
+                .contains("\"statements\":[");
+    }
+
+    @Test
+    @DisplayName("findById returns Anime when authenticated with a bearer token")
+    void findById_ReturnAnAnime_WhenAuthenticatedWithBearerToken() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        TokenResponse tokenResponse = testRestTemplateAnonymous.postForObject("/auth/token",
+                new TokenRequestBody("devdojo", "academy"), TokenResponse.class);
+
+        Assertions.assertThat(tokenResponse).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokenResponse.getToken());
+
+        ResponseEntity<Anime> animeEntity = testRestTemplateAnonymous.exchange("/animes/{id}", HttpMethod.GET,
+                new HttpEntity<>(headers), Anime.class, savedAnime.getId());
+
+        Assertions.assertThat(animeEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Assertions.assertThat(animeEntity.getBody()).isNotNull();
+
+        Assertions.assertThat(animeEntity.getBody().getName()).isEqualTo(savedAnime.getName());
+    }
+
+    @Test
+    @DisplayName("token returns 401 when the password is wrong")
+    void token_Return401_WhenPasswordIsWrong() {
+        devDojoUserRepository.save(USER);
+
+        ResponseEntity<TokenResponse> responseEntity = testRestTemplateAnonymous.postForEntity("/auth/token",
+                new TokenRequestBody("devdojo", "wrong"), TokenResponse.class);
+
+        Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
     @Test
     @DisplayName("findByName returns a List of Anime when successful")
     void findByName_ReturnListOfAnime_WhenSuccessful() {
@@ -169,6 +610,68 @@ public class AnimeControllerIT {
         Assertions.assertThat(animeEntity.getBody().stream().toList().get(0).getName()).isNotNull().isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("search returns a Page of Anime matching the prefix when successful")
+    void search_ReturnPageOfAnimeMatchingPrefix_WhenSuccessful() {
+        Anime savedAnime = animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        devDojoUserRepository.save(USER);
+
+        PageableResponse<Anime> animePage = testRestTemplateRoleUser.exchange("/animes/search?name=hajime&mode=PREFIX&ignoreCase=true&size=5&page=0",
+                HttpMethod.GET, null, new ParameterizedTypeReference<PageableResponse<Anime>>() {
+                }).getBody();
+
+        Assertions.assertThat(animePage).isNotNull();
+
+        Assertions.assertThat(animePage.toList())
+                .hasSize(1)
+                .extracting(Anime::getName)
+                .containsExactly(savedAnime.getName());
+    }
+
+    @Test
+    @DisplayName("autocomplete returns Anime saved through the api when successful")
+    void autocomplete_ReturnSavedAnime_WhenSuccessful() {
+        AnimePostRequestBody animePostRequestBody = AnimePostRequestBodyCreator.createAnimePostRequestBody();
+        devDojoUserRepository.save(USER);
+
+        testRestTemplateRoleUser.postForEntity("/animes", animePostRequestBody, Anime.class);
+
+        List<Anime> animeList = testRestTemplateRoleUser.exchange("/animes/autocomplete?prefix=hajime", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Anime>>() {
+                }).getBody();
+
+        Assertions.assertThat(animeList)
+                .isNotNull()
+                .extracting(Anime::getName)
+                .containsExactly(animePostRequestBody.getName());
+        Assertions.assertThat(animeList.get(0).getVersion()).isZero();
+        Assertions.assertThat(animeList.get(0).getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("autocomplete returns the new name of an Anime read before it was replaced")
+    void autocomplete_ReturnNewName_WhenCachedAnimeIsReplaced() {
+        AnimePostRequestBody animePostRequestBody = AnimePostRequestBodyCreator.createAnimePostRequestBody();
+        devDojoUserRepository.save(USER);
+        Anime savedAnime = testRestTemplateRoleUser.postForEntity("/animes", animePostRequestBody, Anime.class).getBody();
+        Assertions.assertThat(savedAnime).isNotNull();
+        testRestTemplateRoleUser.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        testRestTemplateRoleUser.exchange("/animes", HttpMethod.PUT,
+                new HttpEntity<>(new AnimePutRequestBody(savedAnime.getId(), "Zeta")), Void.class);
+
+        List<Anime> renamed = testRestTemplateRoleUser.exchange("/animes/autocomplete?prefix=zet", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Anime>>() {
+                }).getBody();
+        Assertions.assertThat(renamed)
+                .isNotNull()
+                .extracting(Anime::getName, Anime::getVersion)
+                .containsExactly(Assertions.tuple("Zeta", 1L));
+        Assertions.assertThat(testRestTemplateRoleUser.exchange("/animes/autocomplete?prefix=hajime", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Anime>>() {
+                }).getBody()).isEmpty();
+    }
+
     @Test
     @DisplayName("findByName returns an empty List of Anime when anime is not found")
     void findByName_ReturnEmptyList_WhenAnimeIsNotFound() {
@@ -202,6 +705,56 @@ public class AnimeControllerIT {
         Assertions.assertThat(Objects.requireNonNull(animeResponseEntity.getBody()).getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("saveBatch returns one result per Anime when some are invalid")
+    void saveBatch_ReturnOneResultPerAnime_WhenSomeAreInvalid() {
+        devDojoUserRepository.save(USER);
+
+        List<AnimePostRequestBody> animes = List.of(
+                AnimePostRequestBodyCreator.createAnimePostRequestBody(),
+                AnimePostRequestBody.builder().name("").build());
+
+        ResponseEntity<List<AnimeBatchItemResult>> responseEntity = testRestTemplateRoleUser.exchange("/animes/batch", HttpMethod.POST,
+                new HttpEntity<>(animes), new ParameterizedTypeReference<>() {
+                });
+
+        Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Assertions.assertThat(responseEntity.getBody())
+                .isNotNull()
+                .extracting(AnimeBatchItemResult::isCreated)
+                .containsExactly(true, false);
+
+        Assertions.assertThat(animeRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("saveBatch inserts a large ndjson import in batches")
+    void saveBatch_InsertLargeNdjsonImport_WhenSuccessful() {
+        devDojoUserRepository.save(USER);
+        int total = 20_000;
+
+        String body = IntStream.range(0, total)
+                .mapToObj(i -> "{\"name\":\"Anime " + i + "\"}")
+                .collect(Collectors.joining("\n"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        long start = System.nanoTime();
+        ResponseEntity<List<AnimeBatchItemResult>> responseEntity = testRestTemplateRoleUser.exchange("/animes/batch", HttpMethod.POST,
+                new HttpEntity<>(body, headers), new ParameterizedTypeReference<>() {
+                });
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Inserted {} animes in {} ms ({} animes/s)", total, elapsedMillis, total * 1000L / elapsedMillis);
+
+        Assertions.assertThat(responseEntity.getBody())
+                .isNotNull()
+                .hasSize(total)
+                .allMatch(AnimeBatchItemResult::isCreated);
+
+        Assertions.assertThat(animeRepository.count()).isEqualTo(total);
+    }
+
     @Test
     @DisplayName("delete deletes Anime when successful")
     void delete_DeletesAnime_WhenSuccessful() {
@@ -0,0 +1,69 @@
+package academy.devdojo.springboot2essentials.integration;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeIngestionStatus;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "anime.ingestion.enabled=true")
+@AutoConfigureTestDatabase
+public class AnimeIngestionIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    @DisplayName("save returns the created anime once the ingestion writer commits it")
+    void save_ReturnCreatedAnime_WhenIngestionIsEnabled() {
+        ResponseEntity<Anime> response = testRestTemplate.withBasicAuth("devdojo2", "academy")
+                .postForEntity("/animes", AnimePostRequestBodyCreator.createAnimePostRequestBody(), Anime.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(response.getBody()).isNotNull();
+        Assertions.assertThat(testRestTemplate.withBasicAuth("devdojo2", "academy")
+                .getForObject("/animes/" + response.getBody().getId(), AnimeResponse.class).getName())
+                .isEqualTo(response.getBody().getName());
+    }
+
+    @Test
+    @DisplayName("save returns 202 with a tracking id to follow when the client prefers respond-async")
+    void save_ReturnAcceptedWithTrackingId_WhenClientPrefersRespondAsync() throws InterruptedException {
+        TestRestTemplate devdojo = testRestTemplate.withBasicAuth("devdojo2", "academy");
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Prefer", "respond-async");
+
+        ResponseEntity<AnimeIngestionStatus> accepted = devdojo.postForEntity("/animes",
+                new HttpEntity<>(AnimePostRequestBodyCreator.createAnimePostRequestBody(), headers), AnimeIngestionStatus.class);
+
+        Assertions.assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(accepted.getHeaders().getLocation()).isNotNull();
+        AnimeIngestionStatus status = accepted.getBody();
+        for (int i = 0; i < 50 && status != null && status.getStatus() == AnimeIngestionStatus.Status.PENDING; i++) {
+            Thread.sleep(100);
+            status = devdojo.getForObject(accepted.getHeaders().getLocation().getPath(), AnimeIngestionStatus.class);
+        }
+        Assertions.assertThat(status).isNotNull();
+        Assertions.assertThat(status.getStatus()).isEqualTo(AnimeIngestionStatus.Status.CREATED);
+        Assertions.assertThat(devdojo.getForObject("/animes/" + status.getId(), AnimeResponse.class).getName())
+                .isEqualTo(AnimePostRequestBodyCreator.createAnimePostRequestBody().getName());
+    }
+
+    @Test
+    @DisplayName("ingestionStatus returns 400 when the tracking id is unknown")
+    void ingestionStatus_ReturnBadRequest_WhenTrackingIdIsUnknown() {
+        ResponseEntity<String> response = testRestTemplate.withBasicAuth("devdojo2", "academy")
+                .getForEntity("/animes/ingestion/unknown", String.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,53 @@
+package academy.devdojo.springboot2essentials.integration;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "anime.list-cache.maximum-entry-size=1KB")
+@AutoConfigureTestDatabase
+public class AnimeListCacheIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private AnimeRepository animeRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("listAll returns the list gzipped by the server with a weak ETag when it is too large to cache")
+    void listAll_ReturnListGzippedByServer_WhenListIsTooLargeToCache() throws IOException {
+        animeRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .toList());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        ResponseEntity<byte[]> gzippedEntity = testRestTemplate.withBasicAuth("devdojo2", "academy")
+                .exchange("/animes/all", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        Assertions.assertThat(gzippedEntity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        Assertions.assertThat(gzippedEntity.getHeaders().getETag()).isNotNull().startsWith("W/");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(Objects.requireNonNull(gzippedEntity.getBody())))) {
+            Assertions.assertThat(objectMapper.readTree(body)).hasSizeGreaterThanOrEqualTo(100);
+        }
+    }
+}
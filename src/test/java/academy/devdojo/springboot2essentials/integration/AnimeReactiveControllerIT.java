@@ -0,0 +1,335 @@
+package academy.devdojo.springboot2essentials.integration;
+
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
+import academy.devdojo.springboot2essentials.domain.DevDojoUser;
+import academy.devdojo.springboot2essentials.repository.AnimeReactiveRepository;
+import academy.devdojo.springboot2essentials.repository.CacheInvalidationOutbox;
+import academy.devdojo.springboot2essentials.repository.DevDojoUserRepository;
+import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.requests.TokenRequestBody;
+import academy.devdojo.springboot2essentials.util.AnimeCreator;
+import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
+import academy.devdojo.springboot2essentials.wrapper.PageableResponse;
+import academy.devdojo.springboot2essentials.wrapper.TokenResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@ActiveProfiles("reactive")
+class AnimeReactiveControllerIT {
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private AnimeReactiveRepository animeReactiveRepository;
+    @Autowired
+    private DevDojoUserRepository devDojoUserRepository;
+    @Autowired
+    private CacheInvalidationOutbox cacheInvalidationOutbox;
+
+    private static DevDojoUser createUser() {
+        return DevDojoUser.builder()
+                .name("Devdojo Academy")
+                .password("{bcrypt}$2a$10$edC3nxbf8mDBKV2JKKNFx.cDL8LLf/Twg7tMIbZXwOSr8NNxAbom2")
+                .authorities("ROLE_USER")
+                .username("devdojo")
+                .build();
+    }
+
+    private static DevDojoUser createAdmin() {
+        return DevDojoUser.builder()
+                .name("Wesley Bruno")
+                .password("{bcrypt}$2a$10$edC3nxbf8mDBKV2JKKNFx.cDL8LLf/Twg7tMIbZXwOSr8NNxAbom2")
+                .authorities("ROLE_USER,ROLE_ADMIN")
+                .username("wesley")
+                .build();
+    }
+
+    private WebTestClient webTestClientRoleUser;
+    private WebTestClient webTestClientRoleAdmin;
+
+    @BeforeEach
+    void setUp() {
+        animeReactiveRepository.deleteAll().block();
+        devDojoUserRepository.deleteAll();
+        devDojoUserRepository.save(createUser());
+        devDojoUserRepository.save(createAdmin());
+        webTestClientRoleUser = webTestClient.mutate()
+                .defaultHeaders(headers -> headers.setBasicAuth("devdojo", "academy"))
+                .build();
+        webTestClientRoleAdmin = webTestClient.mutate()
+                .defaultHeaders(headers -> headers.setBasicAuth("wesley", "academy"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("List returns List of Anime inside Page object when successful")
+    void list_ReturnListOfAnimeInsidePageObject_WhenSuccessful() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        PageableResponse<Anime> animePage = webTestClientRoleUser.get().uri("/animes?size=3&page=0")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<PageableResponse<Anime>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+
+        Assertions.assertThat(animePage).isNotNull();
+
+        Assertions.assertThat(animePage.toList())
+                .extracting(Anime::getName)
+                .containsExactly(savedAnime.getName());
+
+        Assertions.assertThat(animePage.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("listAll returns list of anime when successful")
+    void listAll_ReturnListOfAnime_WhenSuccessful() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        webTestClientRoleUser.get().uri("/animes/all")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Anime.class)
+                .contains(savedAnime)
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("stream returns newline delimited Anime honouring the client demand")
+    void stream_ReturnNewlineDelimitedAnime_WhenSuccessful() {
+        animeReactiveRepository.saveAll(Flux.range(0, 50).map(i -> Anime.builder().name("Anime " + i).build()))
+                .blockLast();
+
+        List<Anime> firstAnimes = webTestClientRoleUser.get().uri("/animes/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Anime.class)
+                .getResponseBody()
+                .take(10)
+                .collectList()
+                .block();
+
+        Assertions.assertThat(firstAnimes).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("findById returns Anime when successful")
+    void findById_ReturnAnAnime_WhenSuccessful() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        webTestClientRoleUser.get().uri("/animes/{id}", savedAnime.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Anime.class)
+                .isEqualTo(savedAnime);
+    }
+
+    @Test
+    @DisplayName("findById returns bad request when anime is not found")
+    void findById_ReturnBadRequest_WhenAnimeIsNotFound() {
+        webTestClientRoleUser.get().uri("/animes/{id}", 999_999L)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.details").isEqualTo("Anime not Found");
+    }
+
+    @Test
+    @DisplayName("findByName returns a list of anime when successful")
+    void findByName_ReturnListOfAnime_WhenSuccessful() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        webTestClientRoleUser.get().uri("/animes/find?name={name}", savedAnime.getName())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Anime.class)
+                .contains(savedAnime)
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("findByName returns an empty list of anime when anime is not found")
+    void findByName_ReturnEmptyListOfAnime_WhenAnimeIsNotFound() {
+        webTestClientRoleUser.get().uri("/animes/find?name=dbz")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Anime.class)
+                .hasSize(0);
+    }
+
+    @Test
+    @DisplayName("save returns anime when successful")
+    void save_ReturnAnime_WhenSuccessful() {
+        AnimePostRequestBody animePostRequestBody = AnimePostRequestBodyCreator.createAnimePostRequestBody();
+
+        Anime anime = webTestClientRoleUser.post().uri("/animes")
+                .bodyValue(animePostRequestBody)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Anime.class)
+                .returnResult()
+                .getResponseBody();
+
+        Assertions.assertThat(anime).isNotNull();
+
+        Assertions.assertThat(anime.getId()).isNotNull();
+
+        Assertions.assertThat(animeReactiveRepository.findById(anime.getId()).block()).isEqualTo(anime);
+    }
+
+    @Test
+    @DisplayName("save returns bad request when the name is empty")
+    void save_ReturnBadRequest_WhenNameIsEmpty() {
+        webTestClientRoleUser.post().uri("/animes")
+                .bodyValue(new AnimePostRequestBody(""))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fields").isEqualTo("name");
+    }
+
+    @Test
+    @DisplayName("replace updates anime when successful")
+    void replace_UpdatesAnime_WhenSuccessful() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        webTestClientRoleUser.put().uri("/animes")
+                .bodyValue(new AnimePutRequestBody(savedAnime.getId(), "Hajime no Ippo Rising"))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        Assertions.assertThat(animeReactiveRepository.findById(savedAnime.getId()).block())
+                .extracting(Anime::getName)
+                .isEqualTo("Hajime no Ippo Rising");
+    }
+
+    @Test
+    @DisplayName("replace returns 412 when the If-Match version was already replaced")
+    void replace_Returns412_WhenIfMatchVersionWasAlreadyReplaced() {
+        Anime savedAnime = webTestClientRoleUser.post().uri("/animes")
+                .bodyValue(AnimePostRequestBodyCreator.createAnimePostRequestBody())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Anime.class)
+                .returnResult().getResponseBody();
+        String etag = "\"" + savedAnime.getId() + "-" + savedAnime.getVersion() + "\"";
+
+        webTestClientRoleUser.put().uri("/animes")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .bodyValue(new AnimePutRequestBody(savedAnime.getId(), "Hajime no Ippo Rising"))
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClientRoleUser.put().uri("/animes")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .bodyValue(new AnimePutRequestBody(savedAnime.getId(), "Hajime no Ippo New Challenger"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        Assertions.assertThat(animeReactiveRepository.findById(savedAnime.getId()).block())
+                .extracting(Anime::getName, Anime::getVersion)
+                .containsExactly("Hajime no Ippo Rising", savedAnime.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("replace records a cache invalidation for the other instances when successful")
+    void replace_RecordsCacheInvalidation_WhenSuccessful() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+        long lastId = cacheInvalidationOutbox.maxId();
+
+        webTestClientRoleUser.put().uri("/animes")
+                .bodyValue(new AnimePutRequestBody(savedAnime.getId(), "Hajime no Ippo Rising"))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        Assertions.assertThat(cacheInvalidationOutbox.findAfter(lastId, 10))
+                .extracting(CacheInvalidation::getEntity, CacheInvalidation::getEntityKey)
+                .containsExactly(Assertions.tuple(CacheInvalidation.ANIME, String.valueOf(savedAnime.getId())));
+    }
+
+    @Test
+    @DisplayName("delete removes anime when successful")
+    void delete_RemovesAnime_WhenSuccessful() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        webTestClientRoleAdmin.delete().uri("/animes/admin/{id}", savedAnime.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        Assertions.assertThat(animeReactiveRepository.existsById(savedAnime.getId()).block()).isFalse();
+    }
+
+    @Test
+    @DisplayName("delete returns 403 when user is not admin")
+    void delete_Returns403_WhenUserIsNotAdmin() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        webTestClientRoleUser.delete().uri("/animes/admin/{id}", savedAnime.getId())
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    @DisplayName("findById returns Anime when authenticated with a bearer token")
+    void findById_ReturnAnAnime_WhenAuthenticatedWithBearerToken() {
+        Anime savedAnime = animeReactiveRepository.save(AnimeCreator.createAnimeToBeSaved()).block();
+
+        TokenResponse tokenResponse = webTestClient.post().uri("/auth/token")
+                .bodyValue(new TokenRequestBody("devdojo", "academy"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TokenResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        Assertions.assertThat(tokenResponse).isNotNull();
+
+        webTestClient.get().uri("/animes/{id}", savedAnime.getId())
+                .headers(headers -> headers.setBearerAuth(tokenResponse.getToken()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Anime.class)
+                .isEqualTo(savedAnime);
+    }
+
+    @Test
+    @DisplayName("token returns 401 when the password is wrong")
+    void token_Return401_WhenPasswordIsWrong() {
+        webTestClient.post().uri("/auth/token")
+                .bodyValue(new TokenRequestBody("devdojo", "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    @DisplayName("list returns 401 when the request is anonymous")
+    void list_Return401_WhenAnonymous() {
+        webTestClient.get().uri("/animes")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
@@ -0,0 +1,169 @@
+package academy.devdojo.springboot2essentials.integration;
+
+import academy.devdojo.springboot2essentials.Springboot2EssentialsApplication;
+import academy.devdojo.springboot2essentials.config.CacheConfig;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
+import academy.devdojo.springboot2essentials.repository.CacheInvalidationOutbox;
+import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.service.AnimeChangeTracker;
+import academy.devdojo.springboot2essentials.service.AnimeService;
+import academy.devdojo.springboot2essentials.service.CacheInvalidationPoller;
+import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.BeanFactoryCacheOperationSourceAdvisor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.interceptor.BeanFactoryTransactionAttributeSourceAdvisor;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Two instances sharing one database: this test's context and {@link #otherInstance}, started next to it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + CacheInvalidationIT.URL,
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        // polled by the tests themselves
+        "anime.cache-invalidation.poll-interval=1h"
+})
+public class CacheInvalidationIT {
+    static final String URL = "jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext otherInstance;
+
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private CacheInvalidationPoller cacheInvalidationPoller;
+    @Autowired
+    private AnimeChangeTracker animeChangeTracker;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CacheInvalidationOutbox cacheInvalidationOutbox;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void startOtherInstance() {
+        otherInstance = new SpringApplicationBuilder(Springboot2EssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + URL,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--anime.cache-invalidation.poll-interval=1h");
+    }
+
+    @AfterAll
+    static void stopOtherInstance() {
+        otherInstance.close();
+    }
+
+    @Test
+    @DisplayName("poll evicts an anime replaced by another instance from the cache, the name index and the ETag")
+    void poll_EvictsAnime_WhenReplacedByAnotherInstance() {
+        Anime savedAnime = animeService.save(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        cacheInvalidationPoller.poll();
+        Assertions.assertThat(animeService.findByIdOrThrowBadRequestException(savedAnime.getId()).getName()).isEqualTo(savedAnime.getName());
+        String etag = animeChangeTracker.etag();
+
+        other(AnimeService.class).replace(AnimePutRequestBody.builder().id(savedAnime.getId()).name("Changed elsewhere").build(), null);
+        cacheInvalidationPoller.poll();
+
+        Assertions.assertThat(animeService.findByIdOrThrowBadRequestException(savedAnime.getId()).getName()).isEqualTo("Changed elsewhere");
+        Assertions.assertThat(animeService.autocomplete("Changed elsewhere", 10)).extracting(AnimeResponse::getId).contains(savedAnime.getId());
+        Assertions.assertThat(animeChangeTracker.etag()).isNotEqualTo(etag);
+        Assertions.assertThat(meterRegistry.get("anime.cache.invalidation.lag").tag("entity", CacheInvalidation.ANIME).timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("poll removes an anime deleted by another instance from the name index")
+    void poll_RemovesAnime_WhenDeletedByAnotherInstance() {
+        Anime savedAnime = other(AnimeService.class).save(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        cacheInvalidationPoller.poll();
+        Assertions.assertThat(animeService.autocomplete(savedAnime.getName(), 100)).extracting(AnimeResponse::getId).contains(savedAnime.getId());
+
+        other(AnimeService.class).delete(savedAnime.getId());
+        cacheInvalidationPoller.poll();
+
+        Assertions.assertThat(animeService.autocomplete(savedAnime.getName(), 100)).extracting(AnimeResponse::getId).doesNotContain(savedAnime.getId());
+    }
+
+    @Test
+    @DisplayName("poll skips the changes this instance made itself")
+    void poll_SkipsOwnChanges_WhenWrittenHere() {
+        cacheInvalidationPoller.poll();
+        double applied = applied();
+
+        animeService.save(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        cacheInvalidationPoller.poll();
+
+        Assertions.assertThat(applied()).isEqualTo(applied);
+    }
+
+    @Test
+    @DisplayName("poll applies a change committed after a later one once it shows up")
+    void poll_AppliesChange_WhenItFillsAGap() {
+        cacheInvalidationPoller.poll();
+        long lastId = cacheInvalidationOutbox.maxId();
+        insertChange(lastId + 2, CacheInvalidation.USER, "someone");
+        cacheInvalidationPoller.poll();
+        Assertions.assertThat(cacheInvalidationPoller.gapCount()).isEqualTo(1);
+        Cache users = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS_BY_USERNAME));
+        users.put("late", "cached");
+
+        insertChange(lastId + 1, CacheInvalidation.USER, "late");
+        cacheInvalidationPoller.poll();
+
+        Assertions.assertThat(cacheInvalidationPoller.gapCount()).isZero();
+        Assertions.assertThat(users.get("late")).isNull();
+        jdbcTemplate.execute("alter table cache_invalidation alter column id restart with " + (lastId + 3));
+    }
+
+    @Test
+    @DisplayName("replace evicts the cached anime outside its transaction, once it has committed")
+    void replace_EvictsAfterCommit_WhenCacheInterceptorWrapsTransaction() {
+        List<Class<?>> advisors = Arrays.stream(((Advised) animeService).getAdvisors()).<Class<?>>map(Object::getClass).toList();
+
+        Assertions.assertThat(advisors.indexOf(BeanFactoryCacheOperationSourceAdvisor.class))
+                .isNotNegative()
+                .isLessThan(advisors.indexOf(BeanFactoryTransactionAttributeSourceAdvisor.class));
+    }
+
+    private void insertChange(long id, String entity, String key) {
+        jdbcTemplate.update("insert into cache_invalidation (id, entity, entity_key, origin, changed_at) values (?, ?, ?, ?, ?)",
+                id, entity, key, "elsewhere", Timestamp.from(Instant.now()));
+    }
+
+    private double applied() {
+        Counter counter = meterRegistry.find("anime.cache.invalidation.applied").tag("entity", CacheInvalidation.ANIME).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static <T> T other(Class<T> type) {
+        return otherInstance.getBean(type);
+    }
+}
@@ -0,0 +1,69 @@
+package academy.devdojo.springboot2essentials.integration;
+
+import academy.devdojo.springboot2essentials.config.PrincipalRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "anime.rate-limit.enabled=true",
+        "anime.rate-limit.user.capacity=2",
+        "anime.rate-limit.user.refill-per-second=0.01",
+        "anime.rate-limit.admin.capacity=1",
+        "anime.rate-limit.admin.refill-per-second=0.01"
+})
+@AutoConfigureTestDatabase
+public class RateLimitIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("A user over the budget gets 429 with Retry-After while other users are still served")
+    void listAll_ReturnsTooManyRequests_WhenUserBudgetIsSpent() {
+        TestRestTemplate devdojo = testRestTemplate.withBasicAuth("devdojo2", "academy");
+        Assertions.assertThat(devdojo.getForEntity("/animes/all", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(devdojo.getForEntity("/animes/all", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> rejected = devdojo.getForEntity("/animes/all", String.class);
+
+        Assertions.assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        Assertions.assertThat(Long.parseLong(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isPositive();
+        Assertions.assertThat(rejected.getBody()).contains("\"status\":429");
+        Assertions.assertThat(testRestTemplate.withBasicAuth("wesley2", "academy").getForEntity("/animes/all", String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(meterRegistry.get(PrincipalRateLimiter.RATE_LIMIT_COUNTER)
+                .tag("budget", "user").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Admin routes spend a budget of their own")
+    void adminRoutes_UseSeparateBudget_WhenUserBudgetIsLeft() {
+        TestRestTemplate admin = testRestTemplate.withBasicAuth("wesley2", "academy");
+        Assertions.assertThat(admin.exchange("/animes/admin/0", HttpMethod.DELETE, null, String.class)
+                .getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        Assertions.assertThat(admin.exchange("/animes/admin/0", HttpMethod.DELETE, null, String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        Assertions.assertThat(admin.getForEntity("/animes/find?name=x", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("Unauthenticated requests are left to the access rules")
+    void listAll_ReturnsUnauthorized_WhenNotAuthenticated() {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThat(testRestTemplate.getForEntity("/animes/all", String.class).getStatusCode())
+                    .isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package academy.devdojo.springboot2essentials.integration;
+
+import academy.devdojo.springboot2essentials.config.ReadWriteRoutingDataSource;
+import academy.devdojo.springboot2essentials.config.ReplicaLagMonitor;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.requests.AnimePutRequestBody;
+import academy.devdojo.springboot2essentials.service.AnimeChangeTracker;
+import academy.devdojo.springboot2essentials.service.AnimeListResponseCache;
+import academy.devdojo.springboot2essentials.service.AnimeListResponseCache.EncodedResponse;
+import academy.devdojo.springboot2essentials.service.AnimeService;
+import academy.devdojo.springboot2essentials.service.DevDojoUserDetailsService;
+import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "anime.datasource.routing.enabled=true",
+        "anime.datasource.routing.max-lag=5s",
+        // checked by the tests themselves
+        "anime.datasource.routing.lag-check-interval=1h",
+        "anime.datasource.routing.lag-query=select lag_seconds from replica_lag",
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "anime.datasource.replica.jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'",
+        "anime.datasource.replica.driver-class-name=org.h2.Driver",
+        "anime.datasource.replica.username=sa",
+        "anime.datasource.replica.password="
+})
+public class ReadWriteRoutingIT {
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private DevDojoUserDetailsService devDojoUserDetailsService;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private AnimeListResponseCache animeListResponseCache;
+    @Autowired
+    private AnimeChangeTracker animeChangeTracker;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("delete from replica_lag");
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    @DisplayName("findByName reads from the replica when it is up to date")
+    void findByName_ReadsFromReplica_WhenReplicaIsUpToDate() {
+        replica.update("insert into anime (id, name, version) values (1000, 'Only on the replica', 0)");
+
+        List<AnimeResponse> animes = animeService.findByName("Only on the replica");
+
+        Assertions.assertThat(animes).extracting(AnimeResponse::getId).containsExactly(1000L);
+        Assertions.assertThat(primary.queryForObject("select count(*) from anime where id = 1000", Integer.class)).isZero();
+        Assertions.assertThat(routed("replica", "read")).isPositive();
+    }
+
+    @Test
+    @DisplayName("findByName reads from the primary when the replica lags behind")
+    void findByName_ReadsFromPrimary_WhenReplicaLagsBehind() {
+        replica.update("insert into anime (id, name, version) values (1001, 'Lagging', 0)");
+        replica.update("insert into replica_lag (lag_seconds) values (60)");
+        replicaLagMonitor.check();
+        double fallbacks = routed("primary", "fallback");
+
+        List<AnimeResponse> animes = animeService.findByName("Lagging");
+
+        Assertions.assertThat(animes).isEmpty();
+        Assertions.assertThat(routed("primary", "fallback")).isGreaterThan(fallbacks);
+        Assertions.assertThat(meterRegistry.get("anime.datasource.replica.usable").gauge().value()).isZero();
+        Assertions.assertThat(meterRegistry.get("anime.datasource.replica.lag").gauge().value()).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Reads after a write never cache the row or the list the replica has not caught up with yet")
+    void cachedReads_ReturnWrittenName_WhenReplicaHasNotCaughtUp() {
+        primary.update("insert into anime (id, name, version) values (1002, 'Before', 0)");
+        replica.update("insert into anime (id, name, version) values (1002, 'Before', 0)");
+        Assertions.assertThat(animeService.findByIdOrThrowBadRequestException(1002L).getName()).isEqualTo("Before");
+        listAll();
+
+        // the replica never receives the write, as one that lags behind without reporting it yet
+        animeService.replace(AnimePutRequestBody.builder().id(1002L).name("After").build(), null);
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThat(animeService.findByIdOrThrowBadRequestException(1002L).getName()).isEqualTo("After");
+            Assertions.assertThat(animeService.findAllById(List.of(1002L)).getAnimes()).extracting(AnimeResponse::getName).containsExactly("After");
+            Assertions.assertThat(new String(listAll().getIdentity(), StandardCharsets.UTF_8)).contains("\"After\"").doesNotContain("\"Before\"");
+        }
+        Assertions.assertThat(routed("primary", "pinned")).isPositive();
+    }
+
+    @Test
+    @DisplayName("save writes to the primary only")
+    void save_WritesToPrimary_WhenSuccessful() {
+        Anime savedAnime = animeService.save(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+
+        String sql = "select count(*) from anime where id = ?";
+        Assertions.assertThat(primary.queryForObject(sql, Integer.class, savedAnime.getId())).isOne();
+        Assertions.assertThat(replica.queryForObject(sql, Integer.class, savedAnime.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername reads from the primary since the user is cached")
+    void loadUserByUsername_ReadsFromPrimary_WhenReplicaIsUpToDate() {
+        primary.update("insert into dev_dojo_user (name, username, password, authorities) values ('Primary', 'routed-user', 'current', 'ROLE_USER')");
+        replica.update("insert into dev_dojo_user (name, username, password, authorities) values ('Replica', 'routed-user', 'stale', 'ROLE_USER')");
+
+        UserDetails userDetails = devDojoUserDetailsService.loadUserByUsername("routed-user");
+
+        Assertions.assertThat(userDetails.getPassword()).isEqualTo("current");
+    }
+
+    @Test
+    @DisplayName("Each pool reports its own hikaricp metrics")
+    void hikariMetrics_AreTaggedPerPool_WhenRoutingIsEnabled() {
+        animeService.listAllNonPageable();
+
+        Assertions.assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge()).isNotNull();
+        Assertions.assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge()).isNotNull();
+    }
+
+    private EncodedResponse listAll() {
+        return animeListResponseCache.get(animeChangeTracker.etag(), "all", false, animeService::listAllNonPageable);
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get(ReadWriteRoutingDataSource.ROUTING_COUNTER)
+                .tag("target", target).tag("reason", reason).functionCounter().count();
+    }
+}
@@ -1,23 +1,38 @@
 package academy.devdojo.springboot2essentials.repository;
 
+import academy.devdojo.springboot2essentials.config.CacheInvalidationProperties;
 import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.domain.CacheInvalidation;
 import academy.devdojo.springboot2essentials.util.AnimeCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import javax.validation.ConstraintViolationException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @DataJpaTest
+@Import({CacheInvalidationOutbox.class, CacheInvalidationProperties.class})
 @DisplayName("Tests for AnimeRepository")
 class AnimeRepositoryTest {
 
     @Autowired
     private AnimeRepository animeRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private CacheInvalidationOutbox cacheInvalidationOutbox;
 
     @Test
     @DisplayName("Save persists anime when successful")
@@ -34,6 +49,38 @@ class AnimeRepositoryTest {
         Assertions.assertThat(animeSaved.getName()).isEqualTo(animeToBeSaved.getName());
     }
 
+    @Test
+    @DisplayName("updateNameIfVersion updates name and bumps version when the version matches")
+    void updateNameIfVersion_UpdatesNameAndBumpsVersion_WhenVersionMatches() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        int updated = this.animeRepository.updateNameIfVersion(animeSaved.getId(), "Overlord", animeSaved.getVersion(), Anime.now());
+        testEntityManager.clear();
+
+        Assertions.assertThat(updated).isEqualTo(1);
+
+        Assertions.assertThat(this.animeRepository.findById(animeSaved.getId()))
+                .get()
+                .extracting(Anime::getName, Anime::getVersion)
+                .containsExactly("Overlord", animeSaved.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("updateNameIfVersion updates nothing when the version is stale")
+    void updateNameIfVersion_UpdatesNothing_WhenVersionIsStale() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        int updated = this.animeRepository.updateNameIfVersion(animeSaved.getId(), "Overlord", animeSaved.getVersion() + 1, Anime.now());
+        testEntityManager.clear();
+
+        Assertions.assertThat(updated).isZero();
+
+        Assertions.assertThat(this.animeRepository.findById(animeSaved.getId()))
+                .get()
+                .extracting(Anime::getName)
+                .isEqualTo(animeSaved.getName());
+    }
+
     @Test
     @DisplayName("Save updates anime when successful")
     void save_UpdatesAnime_WhenSuccessful() {
@@ -53,6 +100,39 @@ class AnimeRepositoryTest {
         Assertions.assertThat(animeUpdated.getName()).isEqualTo(animeSaved.getName());
     }
 
+    @Test
+    @DisplayName("Insert all persists every anime with generated ids when successful")
+    void insertAll_PersistsAnimes_WhenSuccessful() {
+        List<Anime> animesToBeSaved = List.of(AnimeCreator.createAnimeToBeSaved(), Anime.builder().name("Overlord").build());
+
+        List<Anime> animesSaved = this.animeRepository.insertAll(animesToBeSaved);
+
+        Assertions.assertThat(animesSaved)
+                .hasSize(2)
+                .extracting(Anime::getName)
+                .containsExactly("Hajime no Ippo", "Overlord");
+
+        Assertions.assertThat(this.animeRepository.findById(animesSaved.get(1).getId()))
+                .isPresent()
+                .get()
+                .extracting(Anime::getName)
+                .isEqualTo("Overlord");
+    }
+
+    @Test
+    @DisplayName("insertAll records a cache invalidation per anime in the same transaction")
+    void insertAll_RecordsCacheInvalidations_WhenSuccessful() {
+        long lastId = cacheInvalidationOutbox.maxId();
+
+        List<Anime> animesSaved = this.animeRepository.insertAll(List.of(AnimeCreator.createAnimeToBeSaved(), Anime.builder().name("Overlord").build()));
+
+        Assertions.assertThat(cacheInvalidationOutbox.findAfter(lastId, 10))
+                .extracting(CacheInvalidation::getEntity, CacheInvalidation::getEntityKey, CacheInvalidation::getOrigin)
+                .containsExactly(
+                        Assertions.tuple(CacheInvalidation.ANIME, String.valueOf(animesSaved.get(0).getId()), cacheInvalidationOutbox.getOrigin()),
+                        Assertions.tuple(CacheInvalidation.ANIME, String.valueOf(animesSaved.get(1).getId()), cacheInvalidationOutbox.getOrigin()));
+    }
+
     @Test
     @DisplayName("Delete removes anime when successful")
     void delete_RemovesAnime_WhenSuccessful() {
@@ -77,11 +157,11 @@ class AnimeRepositoryTest {
 
         String name = animeSaved.getName();
 
-        List<Anime> animes = this.animeRepository.findByName(name);
+        List<AnimeResponse> animes = this.animeRepository.findByName(name);
 
         Assertions.assertThat(animes)
                 .isNotEmpty()
-                .contains(animeSaved);
+                .contains(AnimeResponse.of(animeSaved));
     }
 
     @Test
@@ -89,11 +169,73 @@ class AnimeRepositoryTest {
     void findByName_ReturnsEmptyListOfAnime_WhenAnimeIsNotFound() {
         Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
 
-        List<Anime> animes = this.animeRepository.findByName("!@^~!");
+        List<AnimeResponse> animes = this.animeRepository.findByName("!@^~!");
 
         Assertions.assertThat(animes).isEmpty();
     }
 
+    @Test
+    @DisplayName("Find by name starting with ignore case returns a page of Anime when successful")
+    void findByNameStartingWithIgnoreCase_ReturnsPageOfAnime_WhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        Page<AnimeResponse> animes = this.animeRepository.findByNameStartingWithIgnoreCase("HAJIME", PageRequest.of(0, 10));
+
+        Assertions.assertThat(animes.getContent())
+                .isNotEmpty()
+                .contains(AnimeResponse.of(animeSaved));
+    }
+
+    @Test
+    @DisplayName("Find by id greater than returns only animes after the given id when successful")
+    void findByIdGreaterThan_ReturnsAnimesAfterId_WhenSuccessful() {
+        Anime first = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        Anime second = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        Slice<AnimeResponse> animes = this.animeRepository.findByIdGreaterThanOrderByIdAsc(first.getId(), PageRequest.of(0, 10));
+
+        Assertions.assertThat(animes.getContent())
+                .containsExactly(AnimeResponse.of(second));
+
+        Assertions.assertThat(animes.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Stream all returns every saved anime when successful")
+    void streamAll_ReturnsEveryAnime_WhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        try (Stream<AnimeResponse> animes = this.animeRepository.streamAll()) {
+            Assertions.assertThat(animes.toList())
+                    .isNotEmpty()
+                    .contains(AnimeResponse.of(animeSaved));
+        }
+    }
+
+    @Test
+    @DisplayName("Find projected by id returns the AnimeResponse of the saved anime when successful")
+    void findProjectedById_ReturnsAnimeResponse_WhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        Assertions.assertThat(this.animeRepository.findProjectedById(animeSaved.getId()))
+                .contains(AnimeResponse.of(animeSaved));
+    }
+
+    @Test
+    @DisplayName("Find all projected by returns a page of AnimeResponse without loading entities when successful")
+    void findAllProjectedBy_ReturnsPageWithoutLoadingEntities_WhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Page<AnimeResponse> animes = this.animeRepository.findAllProjectedBy(PageRequest.of(0, 10));
+
+        Assertions.assertThat(animes.getContent()).contains(AnimeResponse.of(animeSaved));
+
+        Assertions.assertThat(testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+                .isZero();
+    }
+
     @Test
     @DisplayName("Save thows ContraintViolationException when name is empty")
     void save_ThrowsContraintViolationException_WhenNameIsEmpty() {
@@ -0,0 +1,210 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeChangesProperties;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
+import academy.devdojo.springboot2essentials.wrapper.AnimeChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class AnimeChangeFeedTest {
+    private SimpleMeterRegistry meterRegistry;
+    private AnimeChangeFeed animeChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        AnimeChangesProperties properties = new AnimeChangesProperties();
+        properties.setBufferSize(4);
+        properties.setMaxSubscribers(2);
+        meterRegistry = new SimpleMeterRegistry();
+        animeChangeFeed = new AnimeChangeFeed(properties, new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        animeChangeFeed.close();
+    }
+
+    @Test
+    @DisplayName("publish delivers the event to every subscriber with its type as the event name")
+    void publish_DeliversEvent_WhenSubscribed() throws InterruptedException {
+        RecordingEmitter first = subscribe(null);
+        RecordingEmitter second = subscribe(null);
+
+        animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, 1L, "Hajime no Ippo");
+
+        for (RecordingEmitter emitter : List.of(first, second)) {
+            String event = emitter.next();
+            Assertions.assertThat(event).contains("event:created", "\"id\":1", "\"name\":\"Hajime no Ippo\"");
+        }
+        Assertions.assertThat(meterRegistry.get("anime.changes.published").tag("type", "created").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("subscribe replays the events after Last-Event-ID when they are still buffered")
+    void subscribe_ReplaysEvents_WhenLastEventIdIsBuffered() throws InterruptedException {
+        RecordingEmitter first = subscribe(null);
+        animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, 1L, "Hajime no Ippo");
+        animeChangeFeed.publish(AnimeChangeEvent.Type.UPDATED, 1L, "Overlord");
+        animeChangeFeed.publish(AnimeChangeEvent.Type.DELETED, 1L, null);
+        String lastEventId = eventId(first.next());
+
+        RecordingEmitter resumed = subscribe(lastEventId);
+
+        Assertions.assertThat(resumed.next()).contains("event:updated", "\"name\":\"Overlord\"");
+        Assertions.assertThat(resumed.next()).contains("event:deleted");
+    }
+
+    @Test
+    @DisplayName("subscribe sends a reset event when Last-Event-ID is no longer buffered")
+    void subscribe_SendsReset_WhenLastEventIdIsNotBuffered() throws InterruptedException {
+        RecordingEmitter first = subscribe(null);
+        animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, 1L, "Hajime no Ippo");
+        String lastEventId = eventId(first.next());
+        for (long id = 2; id <= 6; id++) {
+            animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, id, "Anime " + id);
+        }
+
+        RecordingEmitter resumed = subscribe(lastEventId);
+
+        Assertions.assertThat(resumed.next()).contains("event:" + AnimeChangeFeed.RESET);
+    }
+
+    @Test
+    @DisplayName("subscribe sends a reset event when Last-Event-ID was issued by another instance")
+    void subscribe_SendsReset_WhenLastEventIdIsFromAnotherInstance() throws InterruptedException {
+        Assertions.assertThat(subscribe("00000000-1").next()).contains("event:" + AnimeChangeFeed.RESET);
+    }
+
+    @Test
+    @DisplayName("publish disconnects a subscriber that fell further behind than the buffer")
+    void publish_DisconnectsSubscriber_WhenItFallsBehindTheBuffer() throws InterruptedException {
+        RecordingEmitter slow = subscribe(null);
+        slow.block();
+        RecordingEmitter fast = subscribe(null);
+        animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, 1L, "Hajime no Ippo");
+        slow.awaitBlocked();
+        fast.next();
+        for (long id = 2; id <= 10; id++) {
+            animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, id, "Anime " + id);
+            Assertions.assertThat(fast.next()).contains("\"id\":" + id);
+        }
+
+        slow.unblock();
+
+        Assertions.assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(animeChangeFeed.subscriberCount()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("anime.changes.disconnected").tag("reason", "slow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("publish keeps delivering to the other subscribers when one never takes its events")
+    void publish_KeepsDeliveringToOtherSubscribers_WhenSubscriberNeverTakesEvents() throws InterruptedException {
+        animeChangeFeed.close();
+        AnimeChangesProperties properties = new AnimeChangesProperties();
+        properties.setSenderThreads(1);
+        properties.setSendTimeout(Duration.ofMillis(100));
+        animeChangeFeed = new AnimeChangeFeed(properties, new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        RecordingEmitter stalled = new RecordingEmitter();
+        stalled.block();
+        animeChangeFeed.subscribe(stalled, null);
+        stalled.awaitBlocked();
+        RecordingEmitter reader = subscribe(null);
+
+        animeChangeFeed.publish(AnimeChangeEvent.Type.CREATED, 1L, "Hajime no Ippo");
+
+        Assertions.assertThat(reader.next()).contains("event:created", "\"id\":1");
+        Assertions.assertThat(meterRegistry.get("anime.changes.disconnected").tag("reason", "stalled").counter().count()).isEqualTo(1);
+
+        stalled.unblock();
+
+        Assertions.assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("subscribe throws ServiceUnavailableException when the subscribers are at the maximum")
+    void subscribe_ThrowsServiceUnavailableException_WhenAtMaximumSubscribers() {
+        subscribe(null);
+        subscribe(null);
+
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class)
+                .isThrownBy(() -> subscribe(null));
+    }
+
+    private RecordingEmitter subscribe(String lastEventId) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        animeChangeFeed.subscribe(emitter, lastEventId);
+        return emitter;
+    }
+
+    private static String eventId(String event) {
+        return event.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+    }
+
+    /**
+     * Keeps what would be written to the response, one string per event.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private volatile CountDownLatch unblocked = new CountDownLatch(0);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (unblocked.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    unblocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> data = builder.build();
+            String event = data.stream().map(part -> String.valueOf(part.getData())).collect(Collectors.joining());
+            if (!event.startsWith(":")) {
+                events.add(event);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            Assertions.assertThat(event).as("event received").isNotNull();
+            return event;
+        }
+
+        void block() {
+            unblocked = new CountDownLatch(1);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            Assertions.assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void unblock() {
+            unblocked.countDown();
+        }
+    }
+}
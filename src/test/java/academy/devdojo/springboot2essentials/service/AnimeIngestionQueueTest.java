@@ -0,0 +1,152 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeIngestionProperties;
+import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
+import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2essentials.wrapper.AnimeIngestionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class AnimeIngestionQueueTest {
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final AnimeService animeServiceMock = Mockito.mock(AnimeService.class);
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private CountDownLatch release = new CountDownLatch(0);
+    private SimpleMeterRegistry meterRegistry;
+    private AnimeIngestionQueue animeIngestionQueue;
+
+    @BeforeEach
+    void setUp() {
+        AnimeIngestionProperties properties = new AnimeIngestionProperties();
+        properties.setEnabled(true);
+        properties.setQueueCapacity(3);
+        properties.setWaitTimeout(Duration.ofMillis(200));
+        meterRegistry = new SimpleMeterRegistry();
+        BDDMockito.when(animeServiceMock.insertAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            List<Anime> animes = invocation.getArgument(0);
+            batchSizes.add(animes.size());
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            if (animes.stream().anyMatch(anime -> "Broken".equals(anime.getName()))) {
+                throw new DataIntegrityViolationException("Broken is not a valid name");
+            }
+            return animes.stream().map(anime -> new Anime(ids.incrementAndGet(), anime.getName())).toList();
+        });
+        animeIngestionQueue = new AnimeIngestionQueue(animeServiceMock, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        animeIngestionQueue.close();
+    }
+
+    @Test
+    @DisplayName("submit returns the saved anime once the writer commits it")
+    void submit_ReturnsSavedAnime_WhenWriterCommits() {
+        AnimeIngestionQueue.Submission submission = animeIngestionQueue.submit(anime("Hajime no Ippo"));
+
+        Anime savedAnime = submission.await(WAIT);
+
+        Assertions.assertThat(savedAnime).isNotNull();
+        Assertions.assertThat(savedAnime.getId()).isNotNull();
+        Assertions.assertThat(animeIngestionQueue.status(submission.getTrackingId()))
+                .extracting(AnimeIngestionStatus::getStatus, AnimeIngestionStatus::getId)
+                .containsExactly(AnimeIngestionStatus.Status.CREATED, savedAnime.getId());
+    }
+
+    @Test
+    @DisplayName("submit inserts the animes queued while the writer was busy in one batch")
+    void submit_InsertsQueuedAnimesInOneBatch_WhenWriterIsBusy() throws InterruptedException {
+        release = new CountDownLatch(1);
+        AnimeIngestionQueue.Submission first = animeIngestionQueue.submit(anime("First"));
+        Assertions.assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        List<AnimeIngestionQueue.Submission> queued = List.of(
+                animeIngestionQueue.submit(anime("Second")),
+                animeIngestionQueue.submit(anime("Third")),
+                animeIngestionQueue.submit(anime("Fourth")));
+        Assertions.assertThat(animeIngestionQueue.status(queued.get(0).getTrackingId()).getStatus())
+                .isEqualTo(AnimeIngestionStatus.Status.PENDING);
+
+        release.countDown();
+
+        Assertions.assertThat(first.await(WAIT)).isNotNull();
+        queued.forEach(submission -> Assertions.assertThat(submission.await(WAIT)).isNotNull());
+        Assertions.assertThat(batchSizes).containsExactly(1, 3);
+        Assertions.assertThat(meterRegistry.get("anime.ingestion.batch.size").summary().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("submit throws ServiceUnavailableException when the queue is full")
+    void submit_ThrowsServiceUnavailableException_WhenQueueIsFull() throws InterruptedException {
+        release = new CountDownLatch(1);
+        animeIngestionQueue.submit(anime("First"));
+        Assertions.assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            animeIngestionQueue.submit(anime("Queued " + i));
+        }
+
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class)
+                .isThrownBy(() -> animeIngestionQueue.submit(anime("One too many")));
+        Assertions.assertThat(meterRegistry.get("anime.ingestion.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("submit fails only the broken anime when its batch cannot be inserted")
+    void submit_FailsOnlyBrokenAnime_WhenBatchIsNotInserted() throws InterruptedException {
+        release = new CountDownLatch(1);
+        animeIngestionQueue.submit(anime("First"));
+        Assertions.assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        AnimeIngestionQueue.Submission valid = animeIngestionQueue.submit(anime("Valid"));
+        AnimeIngestionQueue.Submission broken = animeIngestionQueue.submit(anime("Broken"));
+
+        release.countDown();
+
+        Assertions.assertThat(valid.await(WAIT)).isNotNull();
+        Assertions.assertThatExceptionOfType(DataIntegrityViolationException.class).isThrownBy(() -> broken.await(WAIT));
+        Assertions.assertThat(animeIngestionQueue.status(broken.getTrackingId()))
+                .extracting(AnimeIngestionStatus::getStatus, AnimeIngestionStatus::getMessage)
+                .containsExactly(AnimeIngestionStatus.Status.FAILED, "Broken is not a valid name");
+        Assertions.assertThat(batchSizes).containsExactly(1, 2, 1, 1);
+    }
+
+    @Test
+    @DisplayName("close fails the animes the writer did not get to within the wait timeout")
+    void close_FailsQueuedAnimes_WhenWaitTimeoutIsOver() throws InterruptedException {
+        release = new CountDownLatch(1);
+        animeIngestionQueue.submit(anime("First"));
+        Assertions.assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        AnimeIngestionQueue.Submission queued = animeIngestionQueue.submit(anime("Queued"));
+
+        animeIngestionQueue.close();
+
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class).isThrownBy(() -> queued.await(WAIT));
+        Assertions.assertThat(animeIngestionQueue.status(queued.getTrackingId()).getStatus())
+                .isEqualTo(AnimeIngestionStatus.Status.FAILED);
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class)
+                .isThrownBy(() -> animeIngestionQueue.submit(anime("Too late")));
+    }
+
+    private static AnimePostRequestBody anime(String name) {
+        return AnimePostRequestBody.builder().name(name).build();
+    }
+}
@@ -0,0 +1,86 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeListCacheProperties;
+import academy.devdojo.springboot2essentials.util.AnimeCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class AnimeListResponseCacheTest {
+    private static final String ETAG = "\"1-1\"";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicInteger queries = new AtomicInteger();
+    private final Supplier<List<AnimeResponse>> body = () -> {
+        queries.incrementAndGet();
+        return List.of(AnimeCreator.createValidAnimeResponse());
+    };
+    private AnimeListCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AnimeListCacheProperties();
+    }
+
+    @Test
+    @DisplayName("get gzips the cached body only once a client accepts gzip")
+    void get_GzipCachedBodyOnlyOnce_WhenClientAcceptsGzip() {
+        AnimeListResponseCache cache = cache();
+
+        AnimeListResponseCache.EncodedResponse plain = cache.get(ETAG, "all", false, body);
+
+        Assertions.assertThat(plain.getIdentity()).isNotEmpty();
+        Assertions.assertThat(plain.getGzip()).isNull();
+
+        AnimeListResponseCache.EncodedResponse gzipped = cache.get(ETAG, "all", true, body);
+
+        Assertions.assertThat(gzipped).isSameAs(plain);
+        Assertions.assertThat(gzipped.getGzip()).isNotEmpty();
+        Assertions.assertThat(cache.get(ETAG, "all", true, body).getGzip()).isSameAs(gzipped.getGzip());
+        Assertions.assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("get returns the body to be written by Jackson without caching it when it is over the maximum entry size")
+    void get_ReturnBodyWithoutCaching_WhenBodyIsOverMaximumEntrySize() {
+        properties.setMaximumEntrySize(DataSize.ofBytes(16));
+        AnimeListResponseCache cache = cache();
+
+        AnimeListResponseCache.EncodedResponse response = cache.get(ETAG, "all", true, body);
+        cache.get(ETAG, "all", true, body);
+
+        Assertions.assertThat(response.getIdentity()).isNull();
+        Assertions.assertThat(response.getGzip()).isNull();
+        Assertions.assertThat(response.getBody()).isEqualTo(List.of(AnimeCreator.createValidAnimeResponse()));
+        Assertions.assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("get returns the body to be written by Jackson without encoding it when the cache is disabled")
+    void get_ReturnBodyWithoutEncoding_WhenCacheIsDisabled() {
+        properties.setEnabled(false);
+
+        AnimeListResponseCache.EncodedResponse response = cache().get(ETAG, "all", true, body);
+
+        Assertions.assertThat(response.getIdentity()).isNull();
+        Assertions.assertThat(response.getBody()).isEqualTo(List.of(AnimeCreator.createValidAnimeResponse()));
+    }
+
+    private AnimeListResponseCache cache() {
+        ServerProperties serverProperties = new ServerProperties();
+        serverProperties.getCompression().setEnabled(true);
+        serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(0));
+        return new AnimeListResponseCache(objectMapper, properties, serverProperties, new SimpleMeterRegistry());
+    }
+}
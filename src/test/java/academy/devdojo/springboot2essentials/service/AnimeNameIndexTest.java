@@ -0,0 +1,80 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+class AnimeNameIndexTest {
+
+    private AnimeNameIndex animeNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        animeNameIndex = new AnimeNameIndex();
+        animeNameIndex.put(anime(1L, "Hajime no Ippo", 0L));
+        animeNameIndex.put(anime(2L, "Hajime no Ippo Rising", 0L));
+        animeNameIndex.put(anime(3L, "Overlord", 0L));
+    }
+
+    @Test
+    @DisplayName("findByPrefix returns animes starting with the prefix ignoring case")
+    void findByPrefix_ReturnAnimesStartingWithPrefix_IgnoringCase() {
+        List<AnimeResponse> animes = animeNameIndex.findByPrefix("HAJIME", 10);
+
+        Assertions.assertThat(animes)
+                .extracting(AnimeResponse::getId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("findByPrefix returns at most limit animes")
+    void findByPrefix_ReturnAtMostLimitAnimes() {
+        Assertions.assertThat(animeNameIndex.findByPrefix("hajime", 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("put replaces the previous name of the same anime")
+    void put_ReplacePreviousName_WhenAnimeIsRenamed() {
+        animeNameIndex.put(anime(3L, "Kingdom", 1L));
+
+        Assertions.assertThat(animeNameIndex.findByPrefix("over", 10)).isEmpty();
+
+        Assertions.assertThat(animeNameIndex.findByPrefix("king", 10))
+                .extracting(AnimeResponse::getName)
+                .containsExactly("Kingdom");
+
+        Assertions.assertThat(animeNameIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("remove drops the anime from the index")
+    void remove_DropAnime_WhenSuccessful() {
+        animeNameIndex.remove(1L);
+
+        Assertions.assertThat(animeNameIndex.findByPrefix("hajime", 10))
+                .extracting(AnimeResponse::getId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("put keeps the indexed name when the anime is an older version")
+    void put_KeepIndexedName_WhenAnimeIsAnOlderVersion() {
+        animeNameIndex.put(anime(3L, "Kingdom", 2L));
+
+        animeNameIndex.put(anime(3L, "Overlord II", 1L));
+
+        Assertions.assertThat(animeNameIndex.findByPrefix("over", 10)).isEmpty();
+        Assertions.assertThat(animeNameIndex.findByPrefix("king", 10))
+                .extracting(AnimeResponse::getVersion)
+                .containsExactly(2L);
+    }
+
+    private static AnimeResponse anime(Long id, String name, Long version) {
+        return new AnimeResponse(id, name, version, Instant.now());
+    }
+}
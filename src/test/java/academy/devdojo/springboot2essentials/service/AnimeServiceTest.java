@@ -1,11 +1,24 @@
 package academy.devdojo.springboot2essentials.service;
 
+import academy.devdojo.springboot2essentials.config.AnimeBatchProperties;
+import academy.devdojo.springboot2essentials.config.AnimeCacheProperties;
+import academy.devdojo.springboot2essentials.config.AnimeLookupProperties;
+import academy.devdojo.springboot2essentials.config.CacheConfig;
 import academy.devdojo.springboot2essentials.domain.Anime;
 import academy.devdojo.springboot2essentials.execption.BadRequestException;
+import academy.devdojo.springboot2essentials.execption.PreconditionFailedException;
 import academy.devdojo.springboot2essentials.repository.AnimeRepository;
+import academy.devdojo.springboot2essentials.repository.CacheInvalidationOutbox;
+import academy.devdojo.springboot2essentials.requests.AnimePatchRequestBody;
+import academy.devdojo.springboot2essentials.requests.AnimePostRequestBody;
+import academy.devdojo.springboot2essentials.requests.NameSearchMode;
 import academy.devdojo.springboot2essentials.util.AnimeCreator;
 import academy.devdojo.springboot2essentials.util.AnimePostRequestBodyCreator;
 import academy.devdojo.springboot2essentials.util.AnimePutRequestBodyCreator;
+import academy.devdojo.springboot2essentials.wrapper.AnimeBatchItemResult;
+import academy.devdojo.springboot2essentials.wrapper.AnimeChangeEvent;
+import academy.devdojo.springboot2essentials.wrapper.AnimeLookupResponse;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,11 +28,23 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,25 +57,64 @@ class AnimeServiceTest {
     @Mock
     private AnimeRepository animeRepositoryMock;
 
+    @Mock
+    private AnimeNameIndex animeNameIndexMock;
+
+    @Mock
+    private CacheManager cacheManagerMock;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private AnimeBatchProperties animeBatchProperties = new AnimeBatchProperties();
+
+    @Mock
+    private AnimeChangeTracker animeChangeTrackerMock;
+
+    @Mock
+    private CacheInvalidationOutbox cacheInvalidationOutboxMock;
+
+    @Mock
+    private AnimeChangeFeed animeChangeFeedMock;
+
+    @Spy
+    private AnimeLookupProperties animeLookupProperties = new AnimeLookupProperties();
+
+    @Spy
+    private AnimeCacheProperties animeCacheProperties = new AnimeCacheProperties();
+
     @BeforeEach
     void setUp() {
-        PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnime()));
+        PageImpl<AnimeResponse> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnimeResponse()));
 
-        BDDMockito.when(animeRepositoryMock.findAll(ArgumentMatchers.any(PageRequest.class)))
+        BDDMockito.when(animeRepositoryMock.findAllProjectedBy(ArgumentMatchers.any(PageRequest.class)))
                 .thenReturn(animePage);
 
-        BDDMockito.when(animeRepositoryMock.findAll())
+        BDDMockito.when(animeRepositoryMock.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.anyLong(), ArgumentMatchers.any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidAnimeResponse())));
+
+        BDDMockito.when(animeRepositoryMock.findAllProjectedBy())
                 .thenReturn(animePage.toList());
 
         BDDMockito.when(animeRepositoryMock.findByName(ArgumentMatchers.anyString()))
                 .thenReturn(animePage.toList());
 
+        BDDMockito.when(animeRepositoryMock.findByNameStartingWithIgnoreCase(ArgumentMatchers.anyString(), ArgumentMatchers.any(PageRequest.class)))
+                .thenReturn(animePage);
+
+        BDDMockito.when(animeRepositoryMock.findProjectedById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(AnimeCreator.createValidAnimeResponse()));
+
         BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.ofNullable(AnimeCreator.createValidAnime()));
 
         BDDMockito.when(animeRepositoryMock.save(ArgumentMatchers.any(Anime.class)))
                 .thenReturn(AnimeCreator.createValidAnime());
 
+        BDDMockito.when(animeRepositoryMock.insertAll(ArgumentMatchers.anyList()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+
         BDDMockito.doNothing().when(animeRepositoryMock).delete(ArgumentMatchers.any(Anime.class));
 
         BDDMockito.when(animeRepositoryMock.save(ArgumentMatchers.any(Anime.class)))
@@ -61,7 +125,7 @@ class AnimeServiceTest {
     @DisplayName("listAll returns List of Anime inside Page object when successful")
     void listAll_ReturnListOfAnimeInsideOfPageObject_WhenSuccessful() {
         Anime expectedAnime = AnimeCreator.createValidAnime();
-        Page<Anime> animePage = animeService.listAll(PageRequest.of(0, 10));
+        Page<AnimeResponse> animePage = animeService.listAll(PageRequest.of(0, 10));
 
         Assertions.assertThat(animePage).isNotNull();
 
@@ -73,11 +137,27 @@ class AnimeServiceTest {
                 .isEqualTo(expectedAnime.getName());
     }
 
+    @Test
+    @DisplayName("listAllAfter returns List of Anime inside Slice object when successful")
+    void listAllAfter_ReturnListOfAnimeInsideOfSliceObject_WhenSuccessful() {
+        Anime expectedAnime = AnimeCreator.createValidAnime();
+        Slice<AnimeResponse> animeSlice = animeService.listAllAfter(0L, 10);
+
+        Assertions.assertThat(animeSlice).isNotNull();
+
+        Assertions.assertThat(animeSlice.getContent())
+                .isNotNull()
+                .hasSize(1);
+
+        Assertions.assertThat(animeSlice.getContent().get(0).getName())
+                .isEqualTo(expectedAnime.getName());
+    }
+
     @Test
     @DisplayName("listAllNonPageable restuns List of Anime when successfull")
     void listAllNonPageable_ReturnListOfAnime_WhenSuccessful() {
         Anime expectedAnime = AnimeCreator.createValidAnime();
-        List<Anime> animeList = animeService.listAllNonPageable();
+        List<AnimeResponse> animeList = animeService.listAllNonPageable();
 
         Assertions.assertThat(animeList)
                 .isNotNull()
@@ -93,7 +173,7 @@ class AnimeServiceTest {
     @DisplayName("findByName returns a List of Anime when successful")
     void findByName_ReturnListOfAnime_WhenSuccessful() {
         Anime expectedAnime = AnimeCreator.createValidAnime();
-        List<Anime> animeList = animeService.findByName(expectedAnime.getName());
+        List<AnimeResponse> animeList = animeService.findByName(expectedAnime.getName());
 
         Assertions.assertThat(animeList)
                 .isNotNull()
@@ -105,15 +185,29 @@ class AnimeServiceTest {
                 .isEqualTo(expectedAnime.getName());
     }
 
+    @Test
+    @DisplayName("search returns List of Anime inside Page object when successful")
+    void search_ReturnListOfAnimeInsideOfPageObject_WhenSuccessful() {
+        Anime expectedAnime = AnimeCreator.createValidAnime();
+        Page<AnimeResponse> animePage = animeService.search("hajime", NameSearchMode.PREFIX, true, PageRequest.of(0, 10));
+
+        Assertions.assertThat(animePage.toList())
+                .isNotNull()
+                .hasSize(1);
+
+        Assertions.assertThat(animePage.toList().get(0).getName())
+                .isEqualTo(expectedAnime.getName());
+    }
+
     @Test
     @DisplayName("findByIdOrThrowBadRequestException return Anime when Successful")
     void findByIdOrThrowBadRequestException_ReturnAnime_WhenSuccessful() {
         Anime expectedAnime = AnimeCreator.createValidAnime();
-        Anime anime = animeService.findByIdOrThrowBadRequestException(1L);
+        AnimeResponse anime = animeService.findByIdOrThrowBadRequestException(1L);
 
         Assertions.assertThat(anime)
                 .isNotNull()
-                .isInstanceOf(Anime.class);
+                .isInstanceOf(AnimeResponse.class);
 
         Assertions.assertThat(anime.getName()).isEqualTo(expectedAnime.getName());
     }
@@ -121,7 +215,7 @@ class AnimeServiceTest {
     @Test
     @DisplayName("findByIdOrThrowBadRequestException throws BadRequestException when Anime is not foud")
     void findByIdOrThrowBadRequestException_ThrowBadRequestException_WhenAnimeIsNotFound() {
-        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+        BDDMockito.when(animeRepositoryMock.findProjectedById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.empty());
 
         Assertions.assertThatExceptionOfType(BadRequestException.class)
@@ -140,9 +234,34 @@ class AnimeServiceTest {
 
         Assertions.assertThat(anime).isNotNull();
 
+        BDDMockito.verify(animeNameIndexMock).put(AnimeResponse.of(anime));
+        BDDMockito.verify(animeChangeFeedMock).publish(AnimeChangeEvent.Type.CREATED, anime.getId(), anime.getName());
+
         Assertions.assertThat(anime.getName()).isEqualTo(expectedAnime.getName());
     }
 
+    @Test
+    @DisplayName("saveAll returns one result per Anime keeping the invalid ones out of the batch")
+    void saveAll_ReturnOneResultPerAnime_WhenSomeAreInvalid() {
+        List<AnimePostRequestBody> animes = List.of(
+                AnimePostRequestBodyCreator.createAnimePostRequestBody(),
+                AnimePostRequestBody.builder().name("").build());
+
+        List<AnimeBatchItemResult> results = animeService.saveAll(animes.iterator());
+
+        Assertions.assertThat(results).hasSize(2);
+
+        Assertions.assertThat(results.get(0).isCreated()).isTrue();
+
+        Assertions.assertThat(results.get(0).getId()).isEqualTo(AnimeCreator.createValidAnime().getId());
+
+        Assertions.assertThat(results.get(1).isCreated()).isFalse();
+
+        Assertions.assertThat(results.get(1).getMessage()).isEqualTo("The name connot be empty");
+
+        BDDMockito.verify(animeRepositoryMock).insertAll(ArgumentMatchers.argThat(chunk -> chunk.size() == 1));
+    }
+
     @Test
     @DisplayName("delete removes Anime when successful")
     void delete_RemoveAnime_WhenSuccessful() {
@@ -150,10 +269,129 @@ class AnimeServiceTest {
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    @DisplayName("delete removes Anime from the name index only once the transaction commits")
+    void delete_RemoveAnimeFromNameIndexAfterCommit_WhenTransactionIsActive() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            animeService.delete(1L);
+
+            BDDMockito.verify(animeNameIndexMock, Mockito.never()).remove(1L);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        BDDMockito.verify(animeNameIndexMock).remove(1L);
+    }
+
+    @Test
+    @DisplayName("delete throws BadRequestException when Anime is not found")
+    void delete_ThrowBadRequestException_WhenAnimeIsNotFound() {
+        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.delete(1L));
+
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).delete(ArgumentMatchers.any(Anime.class));
+    }
+
     @Test
     @DisplayName("replace updates Anime When successful")
     void replace_UpdateAnime_WhenSuccessful() {
-        Assertions.assertThatCode(() -> animeService.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody()))
+        BDDMockito.when(animeRepositoryMock.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(1);
+        BDDMockito.when(animeRepositoryMock.findCurrentById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(AnimeCreator.createValidAnimeResponse()));
+
+        Assertions.assertThatCode(() -> animeService.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null))
+                .doesNotThrowAnyException();
+
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).findById(ArgumentMatchers.anyLong());
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).findProjectedById(ArgumentMatchers.anyLong());
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).save(ArgumentMatchers.any(Anime.class));
+    }
+
+    @Test
+    @DisplayName("replace throws PreconditionFailedException when the anime was changed since the expected version")
+    void replace_ThrowsPreconditionFailedException_WhenVersionIsStale() {
+        BDDMockito.when(animeRepositoryMock.updateNameIfVersion(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(),
+                        ArgumentMatchers.eq(3L), ArgumentMatchers.any()))
+                .thenReturn(0);
+        BDDMockito.when(animeRepositoryMock.existsById(ArgumentMatchers.anyLong()))
+                .thenReturn(true);
+
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> animeService.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), 3L));
+
+        BDDMockito.verifyNoInteractions(animeChangeFeedMock);
+    }
+
+    @Test
+    @DisplayName("replace throws BadRequestException when anime is not found")
+    void replace_ThrowsBadRequestException_WhenAnimeIsNotFound() {
+        BDDMockito.when(animeRepositoryMock.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(0);
+        BDDMockito.when(animeRepositoryMock.existsById(ArgumentMatchers.anyLong()))
+                .thenReturn(false);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null));
+    }
+
+    @Test
+    @DisplayName("patch keeps the name and updates nothing when the name is left out")
+    void patch_UpdatesNothing_WhenNameIsLeftOut() {
+        Assertions.assertThatCode(() -> animeService.patch(1L, new AnimePatchRequestBody(null), null))
                 .doesNotThrowAnyException();
+
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("findAllById returns the animes in the order asked for and lists the ids not found")
+    void findAllById_ReturnAnimesInRequestOrderAndMissingIds_WhenSomeAreNotFound() {
+        BDDMockito.when(animeRepositoryMock.findByIdIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(animeResponse(2L), animeResponse(1L)));
+
+        AnimeLookupResponse lookup = animeService.findAllById(List.of(1L, 3L, 2L, 1L));
+
+        Assertions.assertThat(lookup.getAnimes()).extracting(AnimeResponse::getId).containsExactly(1L, 2L);
+        Assertions.assertThat(lookup.getMissing()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("findAllById only reads the ids missing from the cache, in chunks, and caches them")
+    void findAllById_ReadOnlyCacheMissesInChunks_WhenSomeAreCached() {
+        animeLookupProperties.setChunkSize(2);
+        Cache cache = new ConcurrentMapCache(CacheConfig.ANIMES_BY_ID);
+        cache.put(1L, animeResponse(1L));
+        BDDMockito.when(cacheManagerMock.getCache(CacheConfig.ANIMES_BY_ID)).thenReturn(cache);
+        BDDMockito.when(animeRepositoryMock.findByIdIn(ArgumentMatchers.anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream().map(AnimeServiceTest::animeResponse).toList());
+
+        AnimeLookupResponse lookup = animeService.findAllById(List.of(1L, 2L, 3L, 4L));
+
+        Assertions.assertThat(lookup.getAnimes()).extracting(AnimeResponse::getId).containsExactly(1L, 2L, 3L, 4L);
+        BDDMockito.verify(animeRepositoryMock).findByIdIn(List.of(2L, 3L));
+        BDDMockito.verify(animeRepositoryMock).findByIdIn(List.of(4L));
+        Assertions.assertThat(cache.get(4L)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("findAllById throws BadRequestException when more ids than allowed are asked for")
+    void findAllById_ThrowsBadRequestException_WhenTooManyIds() {
+        animeLookupProperties.setMaxIds(2);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> animeService.findAllById(List.of(1L, 2L, 3L)));
+
+        BDDMockito.verifyNoInteractions(animeRepositoryMock);
+    }
+
+    private static AnimeResponse animeResponse(Long id) {
+        return new AnimeResponse(id, "Anime " + id, 0L, null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.AnimeAsyncProperties;
+import academy.devdojo.springboot2essentials.execption.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class DatabaseConcurrencyLimiterTest {
+
+    private MeterRegistry meterRegistry;
+    private DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+
+    @BeforeEach
+    void setUp() {
+        AnimeAsyncProperties animeAsyncProperties = new AnimeAsyncProperties();
+        animeAsyncProperties.setDatabasePermits(1);
+        animeAsyncProperties.setDatabaseAcquireTimeout(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+        databaseConcurrencyLimiter = new DatabaseConcurrencyLimiter(animeAsyncProperties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("call returns the supplier result and releases the permit when successful")
+    void call_ReturnSupplierResultAndReleasePermit_WhenSuccessful() {
+        Assertions.assertThat(databaseConcurrencyLimiter.call(() -> "Overlord")).isEqualTo("Overlord");
+
+        Assertions.assertThat(meterRegistry.get("anime.database.limiter.available").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("call releases the permit when the supplier throws")
+    void call_ReleasePermit_WhenSupplierThrows() {
+        Assertions.assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> databaseConcurrencyLimiter.call(() -> {
+                    throw new IllegalStateException();
+                }));
+
+        Assertions.assertThat(meterRegistry.get("anime.database.limiter.available").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("call throws ServiceUnavailableException when every permit is taken until the timeout")
+    void call_ThrowsServiceUnavailableException_WhenPermitsAreExhausted() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> databaseConcurrencyLimiter.call(() -> {
+            holding.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "held";
+        }));
+        holding.await(5, TimeUnit.SECONDS);
+
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class)
+                .isThrownBy(() -> databaseConcurrencyLimiter.call(() -> "rejected"));
+
+        release.countDown();
+        Assertions.assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("held");
+        Assertions.assertThat(meterRegistry.get("anime.database.limiter.rejected").counter().count()).isEqualTo(1);
+    }
+}
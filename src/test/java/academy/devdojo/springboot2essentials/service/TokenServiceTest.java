@@ -0,0 +1,75 @@
+package academy.devdojo.springboot2essentials.service;
+
+import academy.devdojo.springboot2essentials.config.TokenProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+class TokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2023-10-01T10:00:00Z");
+
+    private TokenProperties tokenProperties;
+
+    private TokenService tokenService;
+
+    private final Authentication authentication = new UsernamePasswordAuthenticationToken("devdojo", "academy",
+            AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+
+    @BeforeEach
+    void setUp() {
+        tokenProperties = new TokenProperties();
+        tokenProperties.setSecret(Base64.getEncoder().encodeToString("a-secret-that-is-long-enough-for-hs256".getBytes()));
+        tokenService = new TokenService(tokenProperties, new ObjectMapper(), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("verify returns the authentication carried by a token issued by the same key")
+    void verify_ReturnAuthentication_WhenTokenIsValid() {
+        String token = tokenService.issue(authentication).getToken();
+
+        Authentication verified = tokenService.verify(token).orElseThrow();
+
+        Assertions.assertThat(verified.getName()).isEqualTo("devdojo");
+
+        Assertions.assertThat(AuthorityUtils.authorityListToSet(verified.getAuthorities()))
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("verify returns empty when the token payload was tampered with")
+    void verify_ReturnEmpty_WhenTokenIsTampered() {
+        String[] parts = tokenService.issue(authentication).getToken().split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"devdojo\",\"roles\":[\"ROLE_ADMIN\"],\"exp\":9999999999}".getBytes());
+
+        Assertions.assertThat(tokenService.verify(parts[0] + "." + forgedPayload + "." + parts[2])).isEmpty();
+    }
+
+    @Test
+    @DisplayName("verify returns empty when the token is expired")
+    void verify_ReturnEmpty_WhenTokenIsExpired() {
+        String token = tokenService.issue(authentication).getToken();
+        TokenService later = new TokenService(tokenProperties, new ObjectMapper(),
+                Clock.fixed(NOW.plus(tokenProperties.getTtl()).plus(Duration.ofSeconds(1)), ZoneOffset.UTC));
+
+        Assertions.assertThat(later.verify(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("verify returns empty when the token is malformed")
+    void verify_ReturnEmpty_WhenTokenIsMalformed() {
+        Assertions.assertThat(tokenService.verify("not-a-token")).isEmpty();
+    }
+}
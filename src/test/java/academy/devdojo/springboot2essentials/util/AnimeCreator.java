@@ -1,6 +1,7 @@
 package academy.devdojo.springboot2essentials.util;
 
 import academy.devdojo.springboot2essentials.domain.Anime;
+import academy.devdojo.springboot2essentials.wrapper.AnimeResponse;
 
 public class AnimeCreator {
     public static Anime createAnimeToBeSaved() {
@@ -16,6 +17,10 @@ public class AnimeCreator {
                 .build();
     }
 
+    public static AnimeResponse createValidAnimeResponse() {
+        return AnimeResponse.of(createValidAnime());
+    }
+
     public static Anime createValidUpdatedAnime() {
         return Anime.builder()
                 .id(1L)
@@ -0,0 +1,5 @@
+-- Runs on every connection the replica pool opens, see ReadWriteRoutingIT
+create table if not exists anime (id bigint generated by default as identity primary key, name varchar(255), updated_at timestamp, version bigint);
+create table if not exists dev_dojo_user (id bigint generated by default as identity primary key, authorities varchar(255), name varchar(255), password varchar(255), username varchar(255));
+-- no row means no replication, which the lag monitor reads as no lag
+create table if not exists replica_lag (lag_seconds int);